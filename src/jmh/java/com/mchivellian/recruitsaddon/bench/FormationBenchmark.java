@@ -0,0 +1,58 @@
+package com.mchivellian.recruitsaddon.bench;
+
+import com.mchivellian.recruitsaddon.formation.FormationEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formation layout and slot assignment ({@link FormationEngine}) for squads marching to a point 200 blocks away
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormationBenchmark {
+    
+    @Param({"10", "100", "1000"})
+    public int recruits;
+    
+    @Param({"LINE", "SQUARE", "WEDGE"})
+    public FormationEngine.Shape shape;
+    
+    private SquadFixtures squad;
+    private double targetX;
+    private double targetZ;
+    private int facing;
+    
+    @Setup
+    public void setup() {
+        squad = new SquadFixtures(recruits, 42L);
+        targetX = 200;
+        targetZ = 120;
+        facing = FormationEngine.facingOf(0, 0, targetX, targetZ);
+    }
+    
+    @Benchmark
+    public float[] cachedLayout() {
+        return FormationEngine.getLayout(shape, recruits, facing);
+    }
+    
+    @Benchmark
+    public int[] assignSlots() {
+        float[] layout = FormationEngine.getLayout(shape, recruits, facing);
+        return FormationEngine.assign(squad.x, squad.z, recruits, layout, targetX, targetZ);
+    }
+}
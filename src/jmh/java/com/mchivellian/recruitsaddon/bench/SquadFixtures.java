@@ -0,0 +1,30 @@
+package com.mchivellian.recruitsaddon.bench;
+
+import java.util.Random;
+
+/**
+ * Deterministic synthetic squad positions for benchmarks: most recruits in a loose blob
+ * around the origin, roughly 5% strung out far behind it.
+ */
+final class SquadFixtures {
+    
+    final double[] x;
+    final double[] y;
+    final double[] z;
+    
+    SquadFixtures(int count, long seed) {
+        Random random = new Random(seed);
+        x = new double[count];
+        y = new double[count];
+        z = new double[count];
+        
+        double spread = 4 + Math.sqrt(count) * 2;
+        for (int i = 0; i < count; i++) {
+            boolean laggard = random.nextInt(20) == 0;
+            double offset = laggard ? 60 + random.nextDouble() * 40 : 0;
+            x[i] = random.nextGaussian() * spread - offset;
+            y[i] = 64 + random.nextInt(3);
+            z[i] = random.nextGaussian() * spread - offset;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.mchivellian.recruitsaddon.bench;
+
+import com.mchivellian.recruitsaddon.mission.SquadState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One mission update's worth of squad bookkeeping: snapshot, arrival check and laggard detection
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SquadStateBenchmark {
+    
+    private static final double LAG_THRESHOLD_SQ = 30 * 30; // Default teleportationDistanceThreshold
+    
+    @Param({"10", "100", "1000"})
+    public int recruits;
+    
+    private SquadFixtures fixtures;
+    private SquadState squad;
+    private int[] laggards;
+    
+    @Setup
+    public void setup() {
+        fixtures = new SquadFixtures(recruits, 7L);
+        squad = new SquadState();
+        laggards = new int[recruits];
+    }
+    
+    @Benchmark
+    public int updateAndFindLaggards() {
+        squad.update(fixtures.x, fixtures.y, fixtures.z, recruits, 250, 64, 250, 5);
+        int found = squad.findLaggards(LAG_THRESHOLD_SQ, laggards);
+        return squad.allArrived() ? -found : found;
+    }
+}
@@ -0,0 +1,83 @@
+package com.mchivellian.recruitsaddon.bench;
+
+import com.mchivellian.recruitsaddon.raid.RaidTargetRules;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Raid target type rules applied to every candidate around a squad (one candidate per recruit)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TargetFilterBenchmark {
+    
+    private static final List<String> DEFAULT_BLACKLIST = List.of(
+        "minecraft:creeper", "minecraft:villager", "minecraft:iron_golem", "minecraft:cat", "minecraft:wolf");
+    
+    private static final String[] ENTITY_TYPES = {
+        "minecraft:zombie", "minecraft:skeleton", "minecraft:creeper", "minecraft:spider", "minecraft:enderman",
+        "minecraft:pillager", "minecraft:vindicator", "minecraft:witch", "minecraft:villager", "minecraft:iron_golem",
+        "minecraft:wolf", "minecraft:cat", "minecraft:cow", "minecraft:sheep", "minecraft:husk", "minecraft:drowned",
+        "minecraft:stray", "minecraft:ravager", "minecraft:evoker", "recruits:recruit"
+    };
+    
+    @Param({"10", "100", "1000"})
+    public int recruits;
+    
+    private String[] candidates;
+    private int[] candidateIds;
+    private BitSet compiled;
+    
+    @Setup
+    public void setup() {
+        Random random = new Random(11L);
+        candidates = new String[recruits];
+        candidateIds = new int[recruits];
+        for (int i = 0; i < recruits; i++) {
+            candidateIds[i] = random.nextInt(ENTITY_TYPES.length);
+            candidates[i] = ENTITY_TYPES[candidateIds[i]];
+        }
+        compiled = RaidTargetRules.compile(Arrays.asList(ENTITY_TYPES), DEFAULT_BLACKLIST, true, true);
+    }
+    
+    @Benchmark
+    public int typeRules() {
+        int allowed = 0;
+        for (String type : candidates) {
+            if (!RaidTargetRules.isExcludedType(type, DEFAULT_BLACKLIST, true, true)) {
+                allowed++;
+            }
+        }
+        return allowed;
+    }
+    
+    @Benchmark
+    public int compiledLookup() {
+        int allowed = 0;
+        for (int id : candidateIds) {
+            if (!compiled.get(id)) {
+                allowed++;
+            }
+        }
+        return allowed;
+    }
+}
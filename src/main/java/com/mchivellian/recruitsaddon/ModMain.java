@@ -7,6 +7,7 @@ import com.mchivellian.recruitsaddon.commands.RecruitMovementCommands;
 import com.mchivellian.recruitsaddon.commands.SimpleRecruitsCommands;
 import com.mchivellian.recruitsaddon.commands.WorkingRecruitsCommands;
 import com.mchivellian.recruitsaddon.commands.OfficialStyleCommands;
+import com.mchivellian.recruitsaddon.commands.PerfCommands;
 import com.mchivellian.recruitsaddon.network.NetworkHandler;
 import com.mchivellian.recruitsaddon.raid.RaidManager;
 import net.minecraftforge.api.distmarker.Dist;
@@ -76,6 +77,7 @@ public class ModMain {
     SimpleRecruitsCommands.register(event.getDispatcher());
     WorkingRecruitsCommands.register(event.getDispatcher()); // NEW WORKING IMPLEMENTATION FOR TESTING
     OfficialStyleCommands.register(event.getDispatcher()); // OFFICIAL-STYLE RECRUIT DISCOVERY TESTING
+    PerfCommands.register(event.getDispatcher());
   }
 
   /**
@@ -0,0 +1,51 @@
+package com.mchivellian.recruitsaddon.commands;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.context.CommandContext;
+
+import com.mchivellian.recruitsaddon.mission.MissionScheduler;
+import com.mchivellian.recruitsaddon.perf.PerfMonitor;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+
+/**
+ * Operator commands for the addon's performance metrics:
+ * /recruits perf        - show p50/p99/max per subsystem and counters
+ * /recruits perf reset  - clear all metrics
+ */
+public class PerfCommands {
+    
+    public static void register(CommandDispatcher<CommandSourceStack> dispatcher) {
+        dispatcher.register(Commands.literal("recruits")
+            .then(Commands.literal("perf")
+                .requires(source -> source.hasPermission(2))
+                .executes(PerfCommands::showPerf)
+                .then(Commands.literal("reset")
+                    .executes(PerfCommands::resetPerf)
+                )
+            )
+        );
+    }
+    
+    private static int showPerf(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        if (!PerfMonitor.isEnabled()) {
+            source.sendFailure(Component.literal("§cPerformance metrics are disabled (enablePerfMetrics in recruits-addon.toml)"));
+            return 0;
+        }
+        
+        source.sendSuccess(() -> Component.literal("§b=== Recruits Addon performance ==="), false);
+        source.sendSuccess(() -> Component.literal("§7scheduled missions: " + MissionScheduler.getScheduledCount()), false);
+        for (String line : PerfMonitor.formatReport()) {
+            source.sendSuccess(() -> Component.literal("§7" + line), false);
+        }
+        return 1;
+    }
+    
+    private static int resetPerf(CommandContext<CommandSourceStack> context) {
+        PerfMonitor.reset();
+        context.getSource().sendSuccess(() -> Component.literal("§aPerformance metrics reset."), true);
+        return 1;
+    }
+}
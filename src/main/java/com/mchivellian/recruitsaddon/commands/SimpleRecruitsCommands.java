@@ -79,20 +79,17 @@ public class SimpleRecruitsCommands {
     private static List<AbstractRecruitEntity> getRecruitsFromEnabledGroups(ServerPlayer player) {
         ModMain.LOGGER.info("DEBUG: Getting recruits for player {}", player.getName().getString());
         
-        // Use the exact same approach as the official mod's MessageMovement.executeServerSide()
-        // Get all AbstractRecruitEntity within range (same as official mod)
-        List<AbstractRecruitEntity> allRecruits = player.getCommandSenderWorld().getEntitiesOfClass(
-            AbstractRecruitEntity.class, 
-            player.getBoundingBox().inflate(500) // Fixed: Double.MAX_VALUE breaks entity search
-        );
-        
-        ModMain.LOGGER.info("DEBUG: Found {} total recruits in world", allRecruits.size());
-        
-        // Filter using the same logic as the official mod
         // For now, use group ID 0 which means "all groups" according to isEffectedByCommand logic
         // Later we can implement proper group selection via network messages
         int targetGroupId = 0; // 0 = all groups (see isEffectedByCommand: this.getGroup() == group || group == 0)
         
+        // Candidates come from the owner/group index instead of a 500-block entity query
+        List<AbstractRecruitEntity> allRecruits = RecruitsIntegration.getIndexedGroupCandidates(
+            player.serverLevel(), player.getUUID(), targetGroupId);
+        
+        ModMain.LOGGER.info("DEBUG: Found {} indexed recruits for player", allRecruits.size());
+        
+        // Filter using the same logic as the official mod
         allRecruits.removeIf(recruit -> !recruit.isEffectedByCommand(player.getUUID(), targetGroupId));
         
         ModMain.LOGGER.info("DEBUG: After filtering with isEffectedByCommand({}, {}): {} recruits found", 
@@ -100,7 +97,7 @@ public class SimpleRecruitsCommands {
         
         // Debug: show which recruits passed the filter
         for (AbstractRecruitEntity recruit : allRecruits) {
-            ModMain.LOGGER.info("DEBUG: Filtered recruit: {} (Group: {}, Owned: {}, Alive: {}, Listen: {})", 
+            ModMain.LOGGER.debug("DEBUG: Filtered recruit: {} (Group: {}, Owned: {}, Alive: {}, Listen: {})", 
                 recruit.getName().getString(), 
                 recruit.getGroup(),
                 recruit.isOwned(),
@@ -366,7 +363,7 @@ public class SimpleRecruitsCommands {
             // 1. Cancel any active raid missions FIRST
             for (AbstractRecruitEntity recruit : recruits) {
                 try {
-                    com.mchivellian.recruitsaddon.raid.AdvancedRaidManager.cancelRaidMission(recruit.getUUID());
+                    com.mchivellian.recruitsaddon.raid.AdvancedRaidManager.cancelRaidMissionOf(recruit.getUUID());
                 } catch (Exception e) {
                     // Raid manager might not be available
                 }
@@ -452,7 +449,7 @@ public class SimpleRecruitsCommands {
             // 3. Cancel active raid missions for all recruits
             for (AbstractRecruitEntity recruit : recruits) {
                 try {
-                    com.mchivellian.recruitsaddon.raid.AdvancedRaidManager.cancelRaidMission(recruit.getUUID());
+                    com.mchivellian.recruitsaddon.raid.AdvancedRaidManager.cancelRaidMissionOf(recruit.getUUID());
                 } catch (Exception e) {
                     // Raid manager might not be available
                 }
@@ -19,6 +19,7 @@ public class RaidConfig {
     public static final ForgeConfigSpec.BooleanValue ENABLE_RAID_NOTIFICATIONS;
     public static final ForgeConfigSpec.IntValue NOTIFICATION_RANGE;
     public static final ForgeConfigSpec.IntValue DESTINATION_REACH_DISTANCE;
+    public static final ForgeConfigSpec.IntValue MAX_ATTACKERS_PER_TARGET;
     
     // Entity blacklist settings
     public static final ForgeConfigSpec.ConfigValue<List<? extends String>> RAID_ENTITY_BLACKLIST;
@@ -41,6 +42,36 @@ public class RaidConfig {
     public static final ForgeConfigSpec.IntValue TELEPORTATION_DISTANCE_THRESHOLD;
     public static final ForgeConfigSpec.IntValue TELEPORTATION_PROGRESS_THRESHOLD;
     
+    // Performance settings
+    public static final ForgeConfigSpec.IntValue MISSION_TICK_BUDGET_MICROS;
+    public static final ForgeConfigSpec.IntValue MARCH_UPDATE_INTERVAL;
+    public static final ForgeConfigSpec.IntValue RAID_UPDATE_INTERVAL;
+    public static final ForgeConfigSpec.IntValue ADVANCED_RAID_UPDATE_INTERVAL;
+    public static final ForgeConfigSpec.BooleanValue ENABLE_PERF_METRICS;
+    public static final ForgeConfigSpec.IntValue PERF_LOG_INTERVAL_SECONDS;
+    
+    // Long-range march settings
+    public static final ForgeConfigSpec.BooleanValue ENABLE_LONG_RANGE_MARCH;
+    public static final ForgeConfigSpec.IntValue LONG_RANGE_MIN_DISTANCE;
+    public static final ForgeConfigSpec.IntValue LONG_RANGE_LOOKAHEAD_CHUNKS;
+    public static final ForgeConfigSpec.IntValue CHUNK_TICKET_BUDGET;
+    
+    // Abstracted travel settings
+    public static final ForgeConfigSpec.BooleanValue ENABLE_ABSTRACTED_TRAVEL;
+    public static final ForgeConfigSpec.IntValue ABSTRACTION_DISTANCE;
+    public static final ForgeConfigSpec.DoubleValue ABSTRACTED_TRAVEL_SPEED;
+    
+    // Pathing settings
+    public static final ForgeConfigSpec.BooleanValue ENABLE_FLOW_FIELD;
+    public static final ForgeConfigSpec.IntValue FLOW_FIELD_MIN_SQUAD;
+    public static final ForgeConfigSpec.IntValue FLOW_FIELD_RADIUS;
+    public static final ForgeConfigSpec.BooleanValue ENABLE_LEADER_FOLLOWER_MARCH;
+    public static final ForgeConfigSpec.BooleanValue ENABLE_ROUTE_PLANNER;
+    public static final ForgeConfigSpec.IntValue ROUTE_MIN_DISTANCE;
+    public static final ForgeConfigSpec.IntValue ROUTE_PLANNER_THREADS;
+    public static final ForgeConfigSpec.IntValue ROUTE_CACHE_SIZE;
+    public static final ForgeConfigSpec.BooleanValue ENABLE_STALL_DETECTION;
+    
     static {
         BUILDER.comment("Raid / March behaviour settings. Adjust movement, notifications and arrival detection parameters.").push("Raid Behavior");
         
@@ -55,6 +86,10 @@ public class RaidConfig {
         DESTINATION_REACH_DISTANCE = BUILDER
             .comment("Distance in blocks to consider destination reached")
             .defineInRange("destinationReachDistance", 5, 1, 20);
+            
+        MAX_ATTACKERS_PER_TARGET = BUILDER
+            .comment("Maximum number of raiding recruits assigned to the same enemy. Recruits are spread evenly below this cap.")
+            .defineInRange("maxAttackersPerTarget", 4, 1, 32);
         
         BUILDER.pop();
         
@@ -135,6 +170,110 @@ public class RaidConfig {
         
         BUILDER.pop();
         
+        BUILDER.comment("Server performance tuning for march / raid mission updates.").push("Performance");
+        
+        MISSION_TICK_BUDGET_MICROS = BUILDER
+            .comment("Time budget (in microseconds) all mission updates may use per server tick. Missions that do not fit are carried over to the next tick.")
+            .defineInRange("missionTickBudgetMicros", 2000, 100, 50000);
+            
+        MARCH_UPDATE_INTERVAL = BUILDER
+            .comment("Ticks between updates of each active march")
+            .defineInRange("marchUpdateInterval", 20, 1, 200);
+            
+        RAID_UPDATE_INTERVAL = BUILDER
+            .comment("Ticks between updates of each active raid")
+            .defineInRange("raidUpdateInterval", 20, 1, 200);
+            
+        ADVANCED_RAID_UPDATE_INTERVAL = BUILDER
+            .comment("Ticks between updates of each active advanced raid mission (march -> raid)")
+            .defineInRange("advancedRaidUpdateInterval", 10, 1, 200);
+            
+        ENABLE_PERF_METRICS = BUILDER
+            .comment("Collect timing / counter metrics for missions, lookups and packets (see /recruits perf)")
+            .define("enablePerfMetrics", true);
+            
+        PERF_LOG_INTERVAL_SECONDS = BUILDER
+            .comment("Seconds between structured performance log lines (0 = never log)")
+            .defineInRange("perfLogIntervalSeconds", 300, 0, 86400);
+        
+        BUILDER.pop();
+        
+        BUILDER.comment("Keeps squads on long marches / raids loaded while no player is near them, using a bounded number of chunk tickets.").push("Long Range March");
+        
+        ENABLE_LONG_RANGE_MARCH = BUILDER
+            .comment("Keep the chunks of squads on long marches and raids loaded, so they keep moving away from players")
+            .define("enableLongRangeMarch", true);
+            
+        LONG_RANGE_MIN_DISTANCE = BUILDER
+            .comment("Minimum travel distance (in blocks) for a march or raid to use long-range mode")
+            .defineInRange("longRangeMinDistance", 128, 32, 100000);
+            
+        LONG_RANGE_LOOKAHEAD_CHUNKS = BUILDER
+            .comment("Chunks ahead of the squad, towards its target, that are kept loaded")
+            .defineInRange("longRangeLookaheadChunks", 2, 0, 8);
+            
+        CHUNK_TICKET_BUDGET = BUILDER
+            .comment("Maximum number of chunks kept loaded for all long-range squads together")
+            .defineInRange("chunkTicketBudget", 48, 0, 1024);
+        
+        BUILDER.pop();
+        
+        BUILDER.comment("Marching squads far from every player can be taken out of the world and moved along their route virtually.").push("Abstracted Travel");
+        
+        ENABLE_ABSTRACTED_TRAVEL = BUILDER
+            .comment("Take marching squads out of simulation while no player is near; they are put back when a player approaches or they arrive")
+            .define("enableAbstractedTravel", false);
+            
+        ABSTRACTION_DISTANCE = BUILDER
+            .comment("Distance (in blocks) from the nearest player beyond which a marching squad may be abstracted")
+            .defineInRange("abstractionDistance", 160, 64, 1024);
+            
+        ABSTRACTED_TRAVEL_SPEED = BUILDER
+            .comment("Speed (in blocks per second) at which an abstracted squad moves along its route")
+            .defineInRange("abstractedTravelSpeed", 4.0, 0.5, 20.0);
+        
+        BUILDER.pop();
+        
+        BUILDER.comment("Shared pathfinding for large squads moving to one destination.").push("Pathing");
+        
+        ENABLE_FLOW_FIELD = BUILDER
+            .comment("Steer large marching / raiding squads along one shared flow field instead of one path search per recruit")
+            .define("enableFlowField", true);
+            
+        FLOW_FIELD_MIN_SQUAD = BUILDER
+            .comment("Minimum squad size that uses a flow field; smaller squads path individually")
+            .defineInRange("flowFieldMinSquad", 12, 2, 500);
+            
+        FLOW_FIELD_RADIUS = BUILDER
+            .comment("Radius (in blocks) around the destination covered by a flow field; recruits further out head straight for the destination")
+            .defineInRange("flowFieldRadius", 96, 32, 128);
+            
+        ENABLE_LEADER_FOLLOWER_MARCH = BUILDER
+            .comment("Marches path once for a leader; the other recruits keep formation slots around it instead of each pathing to the destination")
+            .define("enableLeaderFollowerMarch", true);
+            
+        ENABLE_ROUTE_PLANNER = BUILDER
+            .comment("Plan long marches / raids on a background thread and lead the squad along the route's waypoints")
+            .define("enableRoutePlanner", true);
+            
+        ROUTE_MIN_DISTANCE = BUILDER
+            .comment("Minimum distance (in blocks) to the destination for a squad to follow a planned route")
+            .defineInRange("routeMinDistance", 128, 64, 4096);
+            
+        ROUTE_PLANNER_THREADS = BUILDER
+            .comment("Worker threads for route planning (takes effect after a server restart)")
+            .defineInRange("routePlannerThreads", 1, 1, 4);
+            
+        ROUTE_CACHE_SIZE = BUILDER
+            .comment("Planned routes kept per dimension (saved with the world) for reuse by later missions to the same place; 0 disables the cache")
+            .defineInRange("routeCacheSize", 64, 0, 1024);
+            
+        ENABLE_STALL_DETECTION = BUILDER
+            .comment("Detect recruits and squads that stop getting closer to their destination and free them: re-path, then a short detour, then a short teleport (if teleportation is enabled)")
+            .define("enableStallDetection", true);
+        
+        BUILDER.pop();
+        
         SPEC = BUILDER.build();
     }
     
@@ -143,7 +282,8 @@ public class RaidConfig {
     }
     
     /**
-     * Check if an entity type is blacklisted from being attacked during raids
+     * Check if an entity type is blacklisted from being attacked during raids.
+     * Raid targeting uses the compiled {@code RaidTargetFilter} instead.
      */
     public static boolean isEntityBlacklisted(String entityType) {
         List<? extends String> blacklist = RAID_ENTITY_BLACKLIST.get();
@@ -0,0 +1,233 @@
+package com.mchivellian.recruitsaddon.formation;
+
+import com.mchivellian.recruitsaddon.perf.PerfMetric;
+import net.minecraft.world.entity.Entity;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Formation solver shared by every command that spreads recruits around a point.
+ * - Slot offsets are computed once per (shape, count, facing) into a flat float array and cached (LRU)
+ * - Facing is the squad's direction of travel, quantized to 8 directions, so lines and wedges face the march
+ * - Recruits are matched to slots by a greedy nearest-slot pass followed by pairwise swaps,
+ *   which keeps total travel short and stops recruits crossing each other's paths
+ */
+public final class FormationEngine {
+    
+    /**
+     * Slot layouts known to the engine
+     */
+    public enum Shape {
+        LINE,    // Single line, 2 blocks apart
+        SQUARE,  // Square grid, 2 blocks apart
+        CIRCLE,  // Ring around the centre
+        WEDGE,   // V with the tip leading
+        GRID     // Wide march grid, 3 blocks apart
+    }
+    
+    private static final int FACINGS = 8;
+    private static final int MAX_CACHED_LAYOUTS = 64;
+    private static final long MAX_SWAP_CHECKS = 250_000; // Bounds the swap pass for very large squads
+    
+    private static final Map<Long, float[]> layoutCache = new LinkedHashMap<>(MAX_CACHED_LAYOUTS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, float[]> eldest) {
+            return size() > MAX_CACHED_LAYOUTS;
+        }
+    };
+    
+    private FormationEngine() {}
+    
+    /**
+     * Assign every member a slot of the formation centred on the given point.
+     * @return world X/Z per member, interleaved: {@code [x0, z0, x1, z1, ...]}
+     */
+    public static double[] solve(List<? extends Entity> members, Shape shape, double centerX, double centerZ) {
+        long start = PerfMetric.FORMATION_SOLVE.begin();
+        int count = members.size();
+        double[] memberX = new double[count];
+        double[] memberZ = new double[count];
+        double sumX = 0, sumZ = 0;
+        for (int i = 0; i < count; i++) {
+            Entity member = members.get(i);
+            memberX[i] = member.getX();
+            memberZ[i] = member.getZ();
+            sumX += memberX[i];
+            sumZ += memberZ[i];
+        }
+        
+        int facing = count > 0 ? facingOf(sumX / count, sumZ / count, centerX, centerZ) : 0;
+        float[] layout = getLayout(shape, count, facing);
+        int[] slotOf = assign(memberX, memberZ, count, layout, centerX, centerZ);
+        
+        double[] positions = new double[count * 2];
+        for (int i = 0; i < count; i++) {
+            int slot = slotOf[i];
+            positions[i * 2] = centerX + layout[slot * 2];
+            positions[i * 2 + 1] = centerZ + layout[slot * 2 + 1];
+        }
+        PerfMetric.FORMATION_SOLVE.end(start);
+        return positions;
+    }
+    
+    /**
+     * Direction of travel from one point to another, quantized to 8 facings (0 = south, clockwise like yaw)
+     */
+    public static int facingOf(double fromX, double fromZ, double toX, double toZ) {
+        double dx = toX - fromX;
+        double dz = toZ - fromZ;
+        if (dx * dx + dz * dz < 1.0e-6) {
+            return 0;
+        }
+        double yaw = Math.atan2(-dx, dz);
+        int facing = (int) Math.round(yaw / (2 * Math.PI / FACINGS));
+        return Math.floorMod(facing, FACINGS);
+    }
+    
+    /**
+     * Slot offsets relative to the formation centre, rotated for the facing.
+     * The returned array is shared and must not be modified.
+     * @return interleaved X/Z offsets, {@code count} slots
+     */
+    public static float[] getLayout(Shape shape, int count, int facing) {
+        long key = ((long) shape.ordinal() << 40) | ((long) facing << 32) | (count & 0xFFFFFFFFL);
+        synchronized (layoutCache) {
+            float[] layout = layoutCache.get(key);
+            if (layout == null) {
+                layout = buildLayout(shape, count, facing);
+                layoutCache.put(key, layout);
+            }
+            return layout;
+        }
+    }
+    
+    /**
+     * Match members to slots, approximately minimizing the total travel distance
+     * @return slot index per member
+     */
+    public static int[] assign(double[] memberX, double[] memberZ, int count, float[] layout, double centerX, double centerZ) {
+        int[] slotOf = new int[count];
+        if (count == 0) return slotOf;
+        
+        double[] slotX = new double[count];
+        double[] slotZ = new double[count];
+        for (int s = 0; s < count; s++) {
+            slotX[s] = centerX + layout[s * 2];
+            slotZ[s] = centerZ + layout[s * 2 + 1];
+        }
+        
+        // Greedy: every member takes the nearest free slot
+        boolean[] taken = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            int best = -1;
+            double bestCost = Double.MAX_VALUE;
+            for (int s = 0; s < count; s++) {
+                if (taken[s]) continue;
+                double cost = distance(memberX[i], memberZ[i], slotX[s], slotZ[s]);
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    best = s;
+                }
+            }
+            taken[best] = true;
+            slotOf[i] = best;
+        }
+        
+        // Local improvement: swap two members' slots whenever that shortens their combined travel
+        long checks = 0;
+        boolean improved = true;
+        while (improved && checks < MAX_SWAP_CHECKS) {
+            improved = false;
+            for (int i = 0; i < count - 1 && checks < MAX_SWAP_CHECKS; i++) {
+                for (int j = i + 1; j < count; j++) {
+                    int a = slotOf[i];
+                    int b = slotOf[j];
+                    double current = distance(memberX[i], memberZ[i], slotX[a], slotZ[a])
+                                   + distance(memberX[j], memberZ[j], slotX[b], slotZ[b]);
+                    double swapped = distance(memberX[i], memberZ[i], slotX[b], slotZ[b])
+                                   + distance(memberX[j], memberZ[j], slotX[a], slotZ[a]);
+                    if (swapped + 1.0e-9 < current) {
+                        slotOf[i] = b;
+                        slotOf[j] = a;
+                        improved = true;
+                    }
+                }
+                checks += count - 1 - i;
+            }
+        }
+        return slotOf;
+    }
+    
+    private static double distance(double x1, double z1, double x2, double z2) {
+        double dx = x1 - x2;
+        double dz = z1 - z2;
+        return Math.sqrt(dx * dx + dz * dz);
+    }
+    
+    /**
+     * Offsets are laid out facing south (+Z, the wedge tip leading) and then rotated
+     */
+    private static float[] buildLayout(Shape shape, int count, int facing) {
+        float[] layout = new float[count * 2];
+        
+        switch (shape) {
+            case SQUARE -> {
+                int sideLength = (int) Math.ceil(Math.sqrt(count));
+                double spacing = 2.0;
+                double start = -(sideLength - 1) * spacing / 2.0;
+                for (int i = 0; i < count; i++) {
+                    layout[i * 2] = (float) (start + (i % sideLength) * spacing);
+                    layout[i * 2 + 1] = (float) (start + (i / sideLength) * spacing);
+                }
+            }
+            case CIRCLE -> {
+                double radius = Math.max(2.0, count * 0.5);
+                for (int i = 0; i < count; i++) {
+                    double angle = 2 * Math.PI * i / count;
+                    layout[i * 2] = (float) (radius * Math.cos(angle));
+                    layout[i * 2 + 1] = (float) (radius * Math.sin(angle));
+                }
+            }
+            case WEDGE -> {
+                double spacing = 2.0;
+                int center = count / 2;
+                for (int i = 0; i < count; i++) {
+                    layout[i * 2] = (float) ((i - center) * spacing);
+                    layout[i * 2 + 1] = (float) (-Math.abs(i - center) * spacing * 0.5);
+                }
+            }
+            case GRID -> {
+                if (count == 1) break; // A single recruit goes straight to the target
+                int spacing = 3;
+                int cols = (int) Math.ceil(Math.sqrt(count));
+                int rows = (int) Math.ceil((double) count / cols);
+                for (int i = 0; i < count; i++) {
+                    layout[i * 2] = ((i % cols) - cols / 2) * spacing;
+                    layout[i * 2 + 1] = ((i / cols) - rows / 2) * spacing;
+                }
+            }
+            default -> {
+                double spacing = 2.0;
+                double start = -(count - 1) * spacing / 2.0;
+                for (int i = 0; i < count; i++) {
+                    layout[i * 2] = (float) (start + i * spacing);
+                }
+            }
+        }
+        
+        if (facing != 0) {
+            double angle = facing * (2 * Math.PI / FACINGS);
+            double cos = Math.cos(angle);
+            double sin = Math.sin(angle);
+            for (int i = 0; i < count; i++) {
+                double x = layout[i * 2];
+                double z = layout[i * 2 + 1];
+                layout[i * 2] = (float) (x * cos - z * sin);
+                layout[i * 2 + 1] = (float) (x * sin + z * cos);
+            }
+        }
+        return layout;
+    }
+}
@@ -0,0 +1,284 @@
+package com.mchivellian.recruitsaddon.integration;
+
+import com.mchivellian.recruitsaddon.ModMain;
+import com.mchivellian.recruitsaddon.mission.MissionScheduler;
+import com.mchivellian.recruitsaddon.mission.MissionType;
+import com.mchivellian.recruitsaddon.perf.PerfMetric;
+import com.talhanation.recruits.entities.AbstractRecruitEntity;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.event.entity.EntityJoinLevelEvent;
+import net.minecraftforge.event.entity.EntityLeaveLevelEvent;
+import net.minecraftforge.event.level.LevelEvent;
+import net.minecraftforge.event.server.ServerStartedEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Server-side registry of every loaded recruit, keyed by UUID and split per level.
+ * Kept current through entity join/leave events so managers can resolve their
+ * recruit lists in O(1) per ID instead of scanning the world border.
+ *
+ * A secondary index keyed by owner UUID and group ID lets command selection cost
+ * O(group size) instead of an AABB query over every entity around the player.
+ */
+@Mod.EventBusSubscriber(modid = ModMain.MODID)
+public class RecruitRegistry {
+
+    private static final Map<ResourceKey<Level>, LevelIndex> indexByLevel = new ConcurrentHashMap<>();
+
+    @SubscribeEvent
+    public static void onEntityJoin(EntityJoinLevelEvent event) {
+        if (event.getLevel().isClientSide()) return;
+        if (!(event.getEntity() instanceof AbstractRecruitEntity recruit)) return;
+
+        levelIndex(event.getLevel().dimension()).add(recruit);
+    }
+
+    @SubscribeEvent
+    public static void onEntityLeave(EntityLeaveLevelEvent event) {
+        if (event.getLevel().isClientSide()) return;
+        if (!(event.getEntity() instanceof AbstractRecruitEntity recruit)) return;
+
+        LevelIndex index = indexByLevel.get(event.getLevel().dimension());
+        if (index != null) {
+            index.remove(recruit);
+        }
+    }
+
+    /**
+     * Ownership and group are plain synched entity data on the recruit, so there is no event
+     * when they change. A cheap once-per-second pass over loaded recruits keeps the index honest;
+     * it runs on the {@link MissionScheduler} so it shares the mission tick budget.
+     */
+    @SubscribeEvent
+    public static void onServerStarted(ServerStartedEvent event) {
+        MissionScheduler.schedule(MissionType.OWNERSHIP_SYNC, server -> {
+            for (LevelIndex index : indexByLevel.values()) {
+                index.syncMemberships();
+            }
+            return false;
+        });
+    }
+
+    @SubscribeEvent
+    public static void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel() instanceof ServerLevel serverLevel) {
+            indexByLevel.remove(serverLevel.dimension());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        indexByLevel.clear();
+    }
+
+    /**
+     * Resolve a loaded recruit in the given level, or null if it is not loaded there
+     */
+    public static AbstractRecruitEntity get(ServerLevel level, UUID recruitId) {
+        LevelIndex index = indexByLevel.get(level.dimension());
+        return index != null ? index.byId.get(recruitId) : null;
+    }
+
+    /**
+     * Resolve a loaded recruit in any level of the server, or null if it is not loaded anywhere
+     */
+    public static AbstractRecruitEntity find(MinecraftServer server, UUID recruitId) {
+        long start = PerfMetric.RECRUIT_LOOKUP.begin();
+        try {
+            for (ServerLevel level : server.getAllLevels()) {
+                AbstractRecruitEntity recruit = get(level, recruitId);
+                if (recruit != null) {
+                    return recruit;
+                }
+            }
+            return null;
+        } finally {
+            PerfMetric.RECRUIT_LOOKUP.end(start);
+        }
+    }
+
+    /**
+     * Resolve every loaded, living recruit of the given IDs in one level, preserving ID order
+     */
+    public static List<AbstractRecruitEntity> resolveAlive(ServerLevel level, Collection<UUID> recruitIds) {
+        long start = PerfMetric.RECRUIT_LOOKUP.begin();
+        List<AbstractRecruitEntity> resolved = new ArrayList<>(recruitIds.size());
+        LevelIndex index = indexByLevel.get(level.dimension());
+        if (index != null) {
+            for (UUID id : recruitIds) {
+                AbstractRecruitEntity recruit = index.byId.get(id);
+                if (recruit != null && recruit.isAlive()) {
+                    resolved.add(recruit);
+                }
+            }
+        }
+        PerfMetric.RECRUIT_LOOKUP.end(start);
+        return resolved;
+    }
+
+    /**
+     * All recruits currently loaded in a level (read-only view)
+     */
+    public static Collection<AbstractRecruitEntity> getAll(ServerLevel level) {
+        LevelIndex index = indexByLevel.get(level.dimension());
+        return index != null ? Collections.unmodifiableCollection(index.byId.values()) : List.of();
+    }
+
+    /**
+     * All loaded, living recruits owned by a player in a level, regardless of distance
+     */
+    public static List<AbstractRecruitEntity> getOwned(ServerLevel level, UUID ownerId) {
+        long start = PerfMetric.RECRUIT_LOOKUP.begin();
+        List<AbstractRecruitEntity> owned = new ArrayList<>();
+        LevelIndex index = indexByLevel.get(level.dimension());
+        Map<Integer, Set<AbstractRecruitEntity>> groups = index != null ? index.byOwner.get(ownerId) : null;
+        if (groups != null) {
+            for (Set<AbstractRecruitEntity> members : groups.values()) {
+                for (AbstractRecruitEntity recruit : members) {
+                    if (recruit.isAlive() && ownerId.equals(recruit.getOwnerUUID())) {
+                        owned.add(recruit);
+                    }
+                }
+            }
+        }
+        PerfMetric.RECRUIT_LOOKUP.end(start);
+        return owned;
+    }
+
+    /**
+     * All loaded, living recruits owned by a player in one specific group of a level
+     */
+    public static List<AbstractRecruitEntity> getOwnedInGroup(ServerLevel level, UUID ownerId, int groupId) {
+        long start = PerfMetric.RECRUIT_LOOKUP.begin();
+        List<AbstractRecruitEntity> owned = new ArrayList<>();
+        LevelIndex index = indexByLevel.get(level.dimension());
+        Map<Integer, Set<AbstractRecruitEntity>> groups = index != null ? index.byOwner.get(ownerId) : null;
+        Set<AbstractRecruitEntity> members = groups != null ? groups.get(groupId) : null;
+        if (members != null) {
+            for (AbstractRecruitEntity recruit : members) {
+                // Double-check live values in case the group changed since the last sync pass
+                if (recruit.isAlive() && ownerId.equals(recruit.getOwnerUUID()) && recruit.getGroup() == groupId) {
+                    owned.add(recruit);
+                }
+            }
+        }
+        PerfMetric.RECRUIT_LOOKUP.end(start);
+        return owned;
+    }
+
+    /**
+     * Re-index a single recruit immediately, e.g. after this mod changed its owner or group
+     */
+    public static void refresh(AbstractRecruitEntity recruit) {
+        if (!(recruit.level() instanceof ServerLevel serverLevel)) return;
+
+        LevelIndex index = indexByLevel.get(serverLevel.dimension());
+        if (index != null && index.byId.get(recruit.getUUID()) == recruit) {
+            index.reindex(recruit);
+        }
+    }
+
+    private static LevelIndex levelIndex(ResourceKey<Level> dimension) {
+        return indexByLevel.computeIfAbsent(dimension, key -> new LevelIndex());
+    }
+
+    /**
+     * Owner and group a recruit was last indexed under
+     */
+    private static final class Membership {
+        final UUID owner;
+        final int group;
+
+        Membership(UUID owner, int group) {
+            this.owner = owner;
+            this.group = group;
+        }
+
+        boolean matches(AbstractRecruitEntity recruit) {
+            return Objects.equals(owner, recruit.getOwnerUUID()) && group == recruit.getGroup();
+        }
+    }
+
+    /**
+     * Per-level primary (UUID) and secondary (owner -> group -> recruits) indexes
+     */
+    private static final class LevelIndex {
+        final Map<UUID, AbstractRecruitEntity> byId = new ConcurrentHashMap<>();
+        final Map<UUID, Map<Integer, Set<AbstractRecruitEntity>>> byOwner = new ConcurrentHashMap<>();
+        final Map<UUID, Membership> memberships = new ConcurrentHashMap<>();
+
+        void add(AbstractRecruitEntity recruit) {
+            AbstractRecruitEntity previous = byId.put(recruit.getUUID(), recruit);
+            if (previous != null) {
+                unlink(previous);
+            }
+            link(recruit);
+        }
+
+        void remove(AbstractRecruitEntity recruit) {
+            // Only drop the mapping if it still points at this instance (a reloaded copy may already be registered)
+            if (byId.remove(recruit.getUUID(), recruit)) {
+                unlink(recruit);
+            }
+        }
+
+        void reindex(AbstractRecruitEntity recruit) {
+            unlink(recruit);
+            link(recruit);
+        }
+
+        void syncMemberships() {
+            for (AbstractRecruitEntity recruit : byId.values()) {
+                Membership membership = memberships.get(recruit.getUUID());
+                if (membership == null || !membership.matches(recruit)) {
+                    reindex(recruit);
+                }
+            }
+        }
+
+        private void link(AbstractRecruitEntity recruit) {
+            UUID owner = recruit.getOwnerUUID();
+            int group = recruit.getGroup();
+            memberships.put(recruit.getUUID(), new Membership(owner, group));
+            if (owner == null) return;
+
+            byOwner.computeIfAbsent(owner, key -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(group, key -> ConcurrentHashMap.newKeySet())
+                    .add(recruit);
+        }
+
+        private void unlink(AbstractRecruitEntity recruit) {
+            Membership membership = memberships.remove(recruit.getUUID());
+            if (membership == null || membership.owner == null) return;
+
+            Map<Integer, Set<AbstractRecruitEntity>> groups = byOwner.get(membership.owner);
+            if (groups == null) return;
+
+            Set<AbstractRecruitEntity> members = groups.get(membership.group);
+            if (members != null) {
+                members.remove(recruit);
+                if (members.isEmpty()) {
+                    groups.remove(membership.group);
+                }
+            }
+            if (groups.isEmpty()) {
+                byOwner.remove(membership.owner);
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.mchivellian.recruitsaddon.integration;
 
+import com.mchivellian.recruitsaddon.ModMain;
+import com.mchivellian.recruitsaddon.formation.FormationEngine;
 import com.talhanation.recruits.entities.AbstractRecruitEntity;
 import com.talhanation.recruits.util.FormationUtils;
 import net.minecraft.core.BlockPos;
@@ -52,12 +54,12 @@ public class RecruitsIntegration {
             return List.of();
         }
         
-        Level level = player.level();
+        // Owner index gives O(owned recruits) candidates; the radius is applied as a plain bounds check
         AABB searchArea = player.getBoundingBox().inflate(radius);
         
-        return level.getEntitiesOfClass(AbstractRecruitEntity.class, searchArea)
+        return RecruitRegistry.getOwned(player.serverLevel(), player.getUUID())
                 .stream()
-                .filter(recruit -> recruit.getOwnerUUID() != null && recruit.getOwnerUUID().equals(player.getUUID()))
+                .filter(recruit -> searchArea.intersects(recruit.getBoundingBox()))
                 .collect(Collectors.toList());
     }
     
@@ -70,31 +72,34 @@ public class RecruitsIntegration {
     
     /**
      * Get recruits in a specific group owned by a player
-     * NOW PROPERLY FILTERS BY GROUP using official mod's isEffectedByCommand method
+     * NOW PROPERLY FILTERS BY GROUP using official mod's isEffectedByCommand method.
+     * Candidates come from the owner/group index, so every loaded recruit of the group is
+     * found regardless of distance (the radius argument is kept for API compatibility).
      */
     public static List<AbstractRecruitEntity> getPlayerRecruitsInGroup(ServerPlayer player, int group, double radius) {
         if (!isRecruitsLoaded()) {
             return List.of();
         }
         
-        // FIXED: Use reasonable search radius instead of Double.MAX_VALUE which breaks entity search
-        Level level = player.level();
-        AABB searchArea = player.getBoundingBox().inflate(500);
+        List<AbstractRecruitEntity> candidates = getIndexedGroupCandidates(player.serverLevel(), player.getUUID(), group);
         
-        List<AbstractRecruitEntity> groupRecruits = level.getEntitiesOfClass(AbstractRecruitEntity.class, searchArea)
-                .stream()
-                .filter(recruit -> {
-                    // Use official mod's filtering method to match EXACTLY what the official mod does
-                    return recruit.isEffectedByCommand(player.getUUID(), group);
-                })
-                .collect(Collectors.toList());
+        // Use official mod's filtering method to match EXACTLY what the official mod does
+        candidates.removeIf(recruit -> !recruit.isEffectedByCommand(player.getUUID(), group));
         
-        System.out.println("DEBUG EMERGENCY: Found " + groupRecruits.size() + " recruits for player " + player.getName().getString() + " in group " + group);
-        for (AbstractRecruitEntity recruit : groupRecruits) {
-            System.out.println("DEBUG EMERGENCY: Recruit: " + recruit.getName().getString() + " Group: " + recruit.getGroup());
-        }
+        ModMain.LOGGER.debug("Found {} recruits for player {} in group {}", candidates.size(), player.getName().getString(), group);
         
-        return groupRecruits;
+        return candidates;
+    }
+    
+    /**
+     * Candidate recruits for a group command from the owner/group index.
+     * Group 0 means "all groups", matching isEffectedByCommand.
+     */
+    public static List<AbstractRecruitEntity> getIndexedGroupCandidates(ServerLevel level, UUID ownerId, int group) {
+        if (group == 0) {
+            return RecruitRegistry.getOwned(level, ownerId);
+        }
+        return RecruitRegistry.getOwnedInGroup(level, ownerId, group);
     }
     
     /**
@@ -216,7 +221,7 @@ public class RecruitsIntegration {
         
         // Find a safe position on the surface if needed
         if (recruit.level() instanceof ServerLevel serverLevel) {
-            blockPos = FormationUtils.getPositionOrSurface(serverLevel, blockPos);
+            blockPos = SurfaceCache.getPositionOrSurface(serverLevel, blockPos);
         }
         
         recruit.setMovePos(blockPos);
@@ -226,88 +231,28 @@ public class RecruitsIntegration {
     }
     
     /**
-     * Apply formation at a specific position
+     * Apply formation at a specific position. Slots are matched to recruits by
+     * {@link FormationEngine} so each recruit takes a nearby slot instead of slot i.
      */
     private static void applyFormationAtPosition(List<AbstractRecruitEntity> recruits, Vec3 centerPos, FormationType formationType) {
         if (recruits.isEmpty()) {
             return;
         }
         
-        List<Vec3> positions = calculateFormationPositions(recruits.size(), centerPos, formationType);
+        double[] slots = FormationEngine.solve(recruits, toShape(formationType), centerPos.x, centerPos.z);
         
-        for (int i = 0; i < Math.min(recruits.size(), positions.size()); i++) {
-            setRecruitMovePosition(recruits.get(i), positions.get(i));
+        for (int i = 0; i < recruits.size(); i++) {
+            setRecruitMovePosition(recruits.get(i), new Vec3(slots[i * 2], centerPos.y, slots[i * 2 + 1]));
         }
     }
     
-    /**
-     * Calculate formation positions based on formation type
-     */
-    private static List<Vec3> calculateFormationPositions(int recruitCount, Vec3 centerPos, FormationType formationType) {
-        List<Vec3> positions = new java.util.ArrayList<>();
-        
-        switch (formationType) {
-            case LINE -> {
-                // Arrange recruits in a line
-                double spacing = 2.0;
-                double startOffset = -(recruitCount - 1) * spacing / 2.0;
-                
-                for (int i = 0; i < recruitCount; i++) {
-                    double xOffset = startOffset + i * spacing;
-                    positions.add(centerPos.add(xOffset, 0, 0));
-                }
-            }
-            case SQUARE -> {
-                // Arrange recruits in a square formation
-                int sideLength = (int) Math.ceil(Math.sqrt(recruitCount));
-                double spacing = 2.0;
-                double startX = -(sideLength - 1) * spacing / 2.0;
-                double startZ = -(sideLength - 1) * spacing / 2.0;
-                
-                for (int i = 0; i < recruitCount; i++) {
-                    int row = i / sideLength;
-                    int col = i % sideLength;
-                    
-                    double x = startX + col * spacing;
-                    double z = startZ + row * spacing;
-                    positions.add(centerPos.add(x, 0, z));
-                }
-            }
-            case CIRCLE -> {
-                // Arrange recruits in a circle
-                double radius = Math.max(2.0, recruitCount * 0.5);
-                
-                for (int i = 0; i < recruitCount; i++) {
-                    double angle = 2 * Math.PI * i / recruitCount;
-                    double x = radius * Math.cos(angle);
-                    double z = radius * Math.sin(angle);
-                    positions.add(centerPos.add(x, 0, z));
-                }
-            }
-            case WEDGE -> {
-                // Arrange recruits in a wedge/V formation
-                double spacing = 2.0;
-                int center = recruitCount / 2;
-                
-                for (int i = 0; i < recruitCount; i++) {
-                    double xOffset = (i - center) * spacing;
-                    double zOffset = Math.abs(i - center) * spacing * 0.5;
-                    positions.add(centerPos.add(xOffset, 0, -zOffset));
-                }
-            }
-            default -> {
-                // Default to line formation
-                double spacing = 2.0;
-                double startOffset = -(recruitCount - 1) * spacing / 2.0;
-                
-                for (int i = 0; i < recruitCount; i++) {
-                    double xOffset = startOffset + i * spacing;
-                    positions.add(centerPos.add(xOffset, 0, 0));
-                }
-            }
-        }
-        
-        return positions;
+    private static FormationEngine.Shape toShape(FormationType formationType) {
+        return switch (formationType) {
+            case SQUARE -> FormationEngine.Shape.SQUARE;
+            case CIRCLE -> FormationEngine.Shape.CIRCLE;
+            case WEDGE -> FormationEngine.Shape.WEDGE;
+            default -> FormationEngine.Shape.LINE;
+        };
     }
     
     /**
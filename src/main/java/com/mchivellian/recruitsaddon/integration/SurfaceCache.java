@@ -0,0 +1,153 @@
+package com.mchivellian.recruitsaddon.integration;
+
+import com.mchivellian.recruitsaddon.ModMain;
+import com.mchivellian.recruitsaddon.mission.MissionScheduler;
+import com.mchivellian.recruitsaddon.mission.MissionType;
+import com.mchivellian.recruitsaddon.perf.PerfCounter;
+import com.mchivellian.recruitsaddon.perf.PerfMetric;
+import com.talhanation.recruits.util.FormationUtils;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.LevelAccessor;
+import net.minecraftforge.event.level.BlockEvent;
+import net.minecraftforge.event.level.ChunkEvent;
+import net.minecraftforge.event.level.ExplosionEvent;
+import net.minecraftforge.event.level.LevelEvent;
+import net.minecraftforge.event.server.ServerStartedEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches {@link FormationUtils#getPositionOrSurface} per block column, so a squad sent to the
+ * same spot costs one surface probe per distinct column instead of one per recruit and tick.
+ *
+ * Columns are grouped per chunk (256-entry arrays) so a chunk unload drops them in one step.
+ * Entries are invalidated by block updates in their column and expire after a short TTL as a
+ * safety net for changes that do not fire block events.
+ */
+@Mod.EventBusSubscriber(modid = ModMain.MODID)
+public class SurfaceCache {
+    
+    private static final int ENTRY_TTL_TICKS = 200; // 10 seconds
+    
+    private static final Map<ResourceKey<Level>, Map<Long, ChunkColumns>> columnsByLevel = new ConcurrentHashMap<>();
+    
+    /**
+     * Drop-in replacement for {@link FormationUtils#getPositionOrSurface} on the server
+     */
+    public static BlockPos getPositionOrSurface(Level level, BlockPos pos) {
+        if (!(level instanceof ServerLevel)) {
+            return FormationUtils.getPositionOrSurface(level, pos);
+        }
+        
+        long now = level.getGameTime();
+        ChunkColumns columns = columnsByLevel.computeIfAbsent(level.dimension(), key -> new ConcurrentHashMap<>())
+            .computeIfAbsent(ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4), key -> new ChunkColumns());
+        int index = columnIndex(pos.getX(), pos.getZ());
+        
+        if (columns.expiry[index] > now && columns.inputY[index] == pos.getY()) {
+            PerfCounter.SURFACE_CACHE_HIT.increment();
+            return BlockPos.of(columns.result[index]);
+        }
+        
+        PerfCounter.SURFACE_CACHE_MISS.increment();
+        long start = PerfMetric.SURFACE_PROBE.begin();
+        BlockPos surface = FormationUtils.getPositionOrSurface(level, pos);
+        PerfMetric.SURFACE_PROBE.end(start);
+        columns.inputY[index] = pos.getY();
+        columns.result[index] = surface.asLong();
+        columns.expiry[index] = now + ENTRY_TTL_TICKS;
+        columns.latestExpiry = Math.max(columns.latestExpiry, now + ENTRY_TTL_TICKS);
+        return surface;
+    }
+    
+    /**
+     * Forget the cached surface of one column
+     */
+    public static void invalidate(LevelAccessor level, BlockPos pos) {
+        if (!(level instanceof ServerLevel serverLevel)) return;
+        
+        Map<Long, ChunkColumns> chunks = columnsByLevel.get(serverLevel.dimension());
+        if (chunks == null) return;
+        
+        ChunkColumns columns = chunks.get(ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4));
+        if (columns != null) {
+            columns.expiry[columnIndex(pos.getX(), pos.getZ())] = 0;
+        }
+    }
+    
+    /**
+     * Fired for every block change that notifies neighbours (placement, breaking, fluids, pistons...)
+     */
+    @SubscribeEvent
+    public static void onNeighborNotify(BlockEvent.NeighborNotifyEvent event) {
+        invalidate(event.getLevel(), event.getPos());
+    }
+    
+    @SubscribeEvent
+    public static void onExplosion(ExplosionEvent.Detonate event) {
+        for (BlockPos pos : event.getAffectedBlocks()) {
+            invalidate(event.getLevel(), pos);
+        }
+    }
+    
+    @SubscribeEvent
+    public static void onChunkUnload(ChunkEvent.Unload event) {
+        if (!(event.getLevel() instanceof ServerLevel serverLevel)) return;
+        
+        Map<Long, ChunkColumns> chunks = columnsByLevel.get(serverLevel.dimension());
+        if (chunks != null) {
+            chunks.remove(event.getChunk().getPos().toLong());
+        }
+    }
+    
+    /**
+     * Drop fully expired chunks; runs on the {@link MissionScheduler} so it shares the mission tick budget
+     */
+    @SubscribeEvent
+    public static void onServerStarted(ServerStartedEvent event) {
+        MissionScheduler.schedule(MissionType.SURFACE_SWEEP, server -> {
+            for (Map.Entry<ResourceKey<Level>, Map<Long, ChunkColumns>> entry : columnsByLevel.entrySet()) {
+                ServerLevel level = server.getLevel(entry.getKey());
+                if (level == null) continue;
+                
+                long now = level.getGameTime();
+                entry.getValue().values().removeIf(columns -> columns.latestExpiry <= now);
+            }
+            return false;
+        });
+    }
+    
+    @SubscribeEvent
+    public static void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel() instanceof ServerLevel serverLevel) {
+            columnsByLevel.remove(serverLevel.dimension());
+        }
+    }
+    
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        columnsByLevel.clear();
+    }
+    
+    private static int columnIndex(int x, int z) {
+        return ((z & 15) << 4) | (x & 15);
+    }
+    
+    /**
+     * Cached probes for the 16x16 columns of one chunk
+     */
+    private static final class ChunkColumns {
+        final int[] inputY = new int[256];
+        final long[] result = new long[256];
+        final long[] expiry = new long[256]; // Game time the entry stops being valid; 0 = empty
+        long latestExpiry;
+    }
+}
@@ -0,0 +1,298 @@
+package com.mchivellian.recruitsaddon.march;
+
+import com.mchivellian.recruitsaddon.ModMain;
+import com.mchivellian.recruitsaddon.config.RaidConfig;
+import com.mchivellian.recruitsaddon.formation.FormationEngine;
+import com.mchivellian.recruitsaddon.integration.SurfaceCache;
+import com.mchivellian.recruitsaddon.mission.SquadState;
+import com.talhanation.recruits.entities.AbstractRecruitEntity;
+import net.minecraft.core.BlockPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.LongArrayTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.level.ChunkPos;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * "Abstracted travel" for marches nobody is watching.
+ * When every recruit of a march is loaded, out of combat and far from all players, the recruits
+ * are saved to NBT and removed from the world. The march then only advances a virtual position
+ * along its route at the configured speed. The recruits are spawned back in formation around
+ * that position as soon as a player comes near, or at the target when the route is done.
+ * The recruits only leave the world once their saved state is on disk, and are only spawned
+ * back once the chunks they land in are loaded through the march's chunk tickets. A saved
+ * recruit stays in the state until it is back in the world or known to be unrestorable.
+ */
+public final class AbstractedTravel {
+    
+    private static final double MIN_REMAINING_DISTANCE = 32; // Do not bother abstracting the last stretch
+    private static final double SPAWN_MARGIN = 32; // Materialize before a player can see the squad's position
+    private static final int MAX_SPAWN_ATTEMPTS = 5; // Rounds a recruit the level keeps refusing is retried
+    
+    private AbstractedTravel() {}
+    
+    /**
+     * Virtual squad of an abstracted march
+     */
+    public static class State {
+        private final List<CompoundTag> recruits;
+        private final long[] route; // Waypoints (BlockPos longs), the last one is the march target
+        private int nextWaypoint;
+        private double x;
+        private double y;
+        private double z;
+        private long lastTick; // -1 until the first update after loading
+        private int spawnAttempts;
+        
+        State(List<CompoundTag> recruits, long[] route, double x, double y, double z, long tick) {
+            this.recruits = recruits;
+            this.route = route;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.lastTick = tick;
+        }
+        
+        public int size() {
+            return recruits.size();
+        }
+        
+        /**
+         * Whether every saved recruit has been put back into the world or given up on
+         */
+        public boolean isEmpty() {
+            return recruits.isEmpty();
+        }
+        
+        public BlockPos getPosition() {
+            return BlockPos.containing(x, y, z);
+        }
+        
+        /**
+         * Move the virtual squad along its route
+         * @return true once the last waypoint was reached
+         */
+        boolean advance(long currentTick) {
+            if (lastTick < 0 || currentTick < lastTick) {
+                lastTick = currentTick;
+                return false;
+            }
+            double step = RaidConfig.ABSTRACTED_TRAVEL_SPEED.get() * (currentTick - lastTick) / 20.0;
+            lastTick = currentTick;
+            while (nextWaypoint < route.length) {
+                BlockPos waypoint = BlockPos.of(route[nextWaypoint]);
+                double dx = waypoint.getX() + 0.5 - x;
+                double dy = waypoint.getY() - y;
+                double dz = waypoint.getZ() + 0.5 - z;
+                double distance = Math.sqrt(dx * dx + dz * dz);
+                if (distance > step) {
+                    x += dx / distance * step;
+                    y += dy / distance * step;
+                    z += dz / distance * step;
+                    return false;
+                }
+                step -= distance;
+                x += dx;
+                y += dy;
+                z += dz;
+                nextWaypoint++;
+            }
+            return true;
+        }
+        
+        CompoundTag save() {
+            CompoundTag tag = new CompoundTag();
+            ListTag list = new ListTag();
+            list.addAll(recruits);
+            tag.put("Recruits", list);
+            tag.put("Route", new LongArrayTag(route));
+            tag.putInt("Next", nextWaypoint);
+            tag.putDouble("X", x);
+            tag.putDouble("Y", y);
+            tag.putDouble("Z", z);
+            return tag;
+        }
+        
+        static State load(CompoundTag tag) {
+            List<CompoundTag> recruits = new ArrayList<>();
+            for (Tag entry : tag.getList("Recruits", Tag.TAG_COMPOUND)) {
+                recruits.add((CompoundTag) entry);
+            }
+            State state = new State(recruits, tag.getLongArray("Route"), tag.getDouble("X"), tag.getDouble("Y"), tag.getDouble("Z"), -1);
+            state.nextWaypoint = tag.getInt("Next");
+            return state;
+        }
+    }
+    
+    /**
+     * Whether the march's squad can be taken out of simulation right now
+     * @param recruits every recruit of the march, resolved this update (same order as the squad snapshot)
+     */
+    static boolean canAbstract(ServerLevel level, MarchData marchData, List<AbstractRecruitEntity> recruits, SquadState squad) {
+        if (!RaidConfig.ENABLE_ABSTRACTED_TRAVEL.get() || recruits.size() != marchData.getRecruitIds().size()) {
+            return false; // Disabled, or some recruits are not loaded and would be left behind
+        }
+        
+        BlockPos target = marchData.getTargetPosition();
+        if (squad.centroidDistanceSqXZ(target.getX(), target.getZ()) < MIN_REMAINING_DISTANCE * MIN_REMAINING_DISTANCE) {
+            return false;
+        }
+        for (AbstractRecruitEntity recruit : recruits) {
+            if (recruit.getTarget() != null || recruit.isPassenger() || recruit.isVehicle()) {
+                return false; // Fighting, mounted or carrying someone
+            }
+        }
+        return !isPlayerNear(level, squad.getBodyX(), squad.getBodyZ(), RaidConfig.ABSTRACTION_DISTANCE.get());
+    }
+    
+    /**
+     * Save the recruits and start the virtual squad at the main body. The recruits stay in the
+     * world; remove them with {@link #removeFromWorld} once the state has been written to disk.
+     * @return the virtual squad, or null if a recruit could not be saved
+     */
+    static State abstractSquad(MarchData marchData, List<AbstractRecruitEntity> recruits, SquadState squad, long currentTick) {
+        List<CompoundTag> tags = new ArrayList<>(recruits.size());
+        for (AbstractRecruitEntity recruit : recruits) {
+            CompoundTag tag = new CompoundTag();
+            if (!recruit.save(tag)) {
+                return null;
+            }
+            tags.add(tag);
+        }
+        long[] route = marchData.getRoute().remainingRoute(marchData.getTargetPosition());
+        ModMain.LOGGER.debug("Abstracted march of {} with {} recruits", marchData.getPlayerId(), tags.size());
+        return new State(tags, route, squad.getBodyX(), squad.getBodyY(), squad.getBodyZ(), currentTick);
+    }
+    
+    /**
+     * Take the abstracted recruits out of the world; only call once their saved state is durable
+     */
+    static void removeFromWorld(List<AbstractRecruitEntity> recruits) {
+        for (AbstractRecruitEntity recruit : recruits) {
+            recruit.discard();
+        }
+    }
+    
+    /**
+     * Advance the virtual squad
+     * @return true when it should be put back into the world (arrived, or a player is close)
+     */
+    static boolean advance(ServerLevel level, State state, long currentTick) {
+        if (state.advance(currentTick)) {
+            return true;
+        }
+        return isPlayerNear(level, state.x, state.z, RaidConfig.ABSTRACTION_DISTANCE.get() + SPAWN_MARGIN);
+    }
+    
+    /**
+     * Chunks the recruits will be spawned into; {@link #materialize} needs all of them loaded
+     */
+    static Set<Long> spawnChunks(State state, BlockPos target) {
+        float[] layout = spawnLayout(state, target);
+        Set<Long> chunks = new HashSet<>();
+        for (int i = 0; i < state.recruits.size(); i++) {
+            BlockPos slot = spawnSlot(state, layout, i);
+            chunks.add(ChunkPos.asLong(slot.getX() >> 4, slot.getZ() >> 4));
+        }
+        return chunks;
+    }
+    
+    /**
+     * Recruits put back by {@link #materialize}, and those that can never be
+     */
+    static final class Restored {
+        final List<AbstractRecruitEntity> recruits = new ArrayList<>();
+        final List<UUID> lost = new ArrayList<>();
+    }
+    
+    /**
+     * Spawn the saved recruits back in a grid around the virtual position. Never loads chunks:
+     * hold {@link #spawnChunks} until they are loaded first.
+     * A recruit already in the level (left over when the server stopped before its removal was
+     * saved) is taken as is. Tags the level refuses stay in the state for the next call, and are
+     * given up after {@link #MAX_SPAWN_ATTEMPTS} rounds; the state is done once it {@link State#isEmpty()}.
+     */
+    static Restored materialize(ServerLevel level, State state, BlockPos target) {
+        int count = state.recruits.size();
+        float[] layout = spawnLayout(state, target);
+        
+        Restored restored = new Restored();
+        List<CompoundTag> refused = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            CompoundTag tag = state.recruits.get(i);
+            UUID id = tag.hasUUID("UUID") ? tag.getUUID("UUID") : null;
+            Entity existing = id != null ? level.getEntity(id) : null;
+            if (existing != null) {
+                if (existing instanceof AbstractRecruitEntity recruit) {
+                    restored.recruits.add(recruit);
+                }
+                continue;
+            }
+            
+            BlockPos slot = spawnSlot(state, layout, i);
+            BlockPos pos = SurfaceCache.getPositionOrSurface(level, slot);
+            Entity entity = EntityType.loadEntityRecursive(tag, level, loaded -> {
+                loaded.moveTo(pos.getX() + 0.5, pos.getY(), pos.getZ() + 0.5, loaded.getYRot(), loaded.getXRot());
+                return loaded;
+            });
+            if (!(entity instanceof AbstractRecruitEntity recruit)) {
+                ModMain.LOGGER.warn("Abstracted recruit {} could not be loaded from its saved state, dropping it", id);
+                if (id != null) {
+                    restored.lost.add(id);
+                }
+            } else if (level.addFreshEntity(recruit)) {
+                restored.recruits.add(recruit);
+            } else {
+                refused.add(tag);
+            }
+        }
+        
+        state.recruits.clear();
+        if (!refused.isEmpty() && ++state.spawnAttempts >= MAX_SPAWN_ATTEMPTS) {
+            for (CompoundTag tag : refused) {
+                UUID id = tag.hasUUID("UUID") ? tag.getUUID("UUID") : null;
+                ModMain.LOGGER.warn("Abstracted recruit {} was refused by the level {} times, dropping it", id, MAX_SPAWN_ATTEMPTS);
+                if (id != null) {
+                    restored.lost.add(id);
+                }
+            }
+        } else {
+            state.recruits.addAll(refused); // Retried on the next call
+        }
+        ModMain.LOGGER.debug("Materialized {} abstracted recruits at ({}, {}, {}), {} left to retry",
+            restored.recruits.size(), state.x, state.y, state.z, state.recruits.size());
+        return restored;
+    }
+    
+    private static float[] spawnLayout(State state, BlockPos target) {
+        int facing = FormationEngine.facingOf(state.x, state.z, target.getX() + 0.5, target.getZ() + 0.5);
+        return FormationEngine.getLayout(FormationEngine.Shape.GRID, state.recruits.size(), facing);
+    }
+    
+    private static BlockPos spawnSlot(State state, float[] layout, int index) {
+        return BlockPos.containing(state.x + layout[index * 2], state.y, state.z + layout[index * 2 + 1]);
+    }
+    
+    private static boolean isPlayerNear(ServerLevel level, double x, double z, double distance) {
+        double distanceSq = distance * distance;
+        for (ServerPlayer player : level.players()) {
+            if (player.isSpectator()) continue;
+            double dx = player.getX() - x;
+            double dz = player.getZ() - z;
+            if (dx * dx + dz * dz <= distanceSq) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -3,6 +3,7 @@ package com.mchivellian.recruitsaddon.march;
 import com.talhanation.recruits.entities.AbstractRecruitEntity;
 import com.mchivellian.recruitsaddon.integration.RecruitsIntegration;
 import com.mchivellian.recruitsaddon.ModMain;
+import com.mchivellian.recruitsaddon.formation.FormationEngine;
 import net.minecraft.client.Minecraft;
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.entity.Entity;
@@ -45,9 +46,10 @@ public class EnhancedMarchManager {
         ModMain.LOGGER.info("Executing Enhanced March for {} recruits to {}", selectedRecruits.size(), targetPos);
 
         int successCount = 0;
+        double[] slots = calculateMarchPositions(selectedRecruits, targetPos);
         for (int i = 0; i < selectedRecruits.size(); i++) {
             Entity recruit = selectedRecruits.get(i);
-            BlockPos finalPos = calculateMarchPosition(targetPos, i, selectedRecruits.size());
+            BlockPos finalPos = BlockPos.containing(slots[i * 2], targetPos.getY(), slots[i * 2 + 1]);
             if (RecruitsIntegration.sendMarchCommand(recruit, finalPos)) {
                 successCount++;
             }
@@ -74,9 +76,10 @@ public class EnhancedMarchManager {
         ModMain.LOGGER.info("Executing coordinate March for {} recruits to {}", selectedRecruits.size(), targetPos);
 
         int successCount = 0;
+        double[] slots = calculateMarchPositions(selectedRecruits, targetPos);
         for (int i = 0; i < selectedRecruits.size(); i++) {
             Entity recruit = selectedRecruits.get(i);
-            BlockPos finalPos = calculateMarchPosition(targetPos, i, selectedRecruits.size());
+            BlockPos finalPos = BlockPos.containing(slots[i * 2], targetPos.getY(), slots[i * 2 + 1]);
             if (RecruitsIntegration.sendMarchCommand(recruit, finalPos)) {
                 successCount++;
             }
@@ -133,18 +136,11 @@ public class EnhancedMarchManager {
         return null;
     }
 
-    private static BlockPos calculateMarchPosition(BlockPos basePos, int index, int total) {
-        if (total == 1) return basePos;
-        
-        int spacing = 3;
-        int cols = (int) Math.ceil(Math.sqrt(total));
-        
-        int row = index / cols;
-        int col = index % cols;
-        
-        int offsetX = (col - cols / 2) * spacing;
-        int offsetZ = (row - (int)Math.ceil((double)total / cols) / 2) * spacing;
-        
-        return basePos.offset(offsetX, 0, offsetZ);
+    /**
+     * March grid slots around the target, matched to recruits by travel distance
+     * @return block-centre X/Z per recruit, interleaved
+     */
+    private static double[] calculateMarchPositions(List<AbstractRecruitEntity> recruits, BlockPos basePos) {
+        return FormationEngine.solve(recruits, FormationEngine.Shape.GRID, basePos.getX() + 0.5, basePos.getZ() + 0.5);
     }
 } 
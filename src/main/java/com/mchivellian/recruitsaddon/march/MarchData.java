@@ -1,13 +1,29 @@
 package com.mchivellian.recruitsaddon.march;
 
+import com.mchivellian.recruitsaddon.config.RaidConfig;
+import com.mchivellian.recruitsaddon.mission.ChunkTickets;
+import com.mchivellian.recruitsaddon.mission.MissionNbt;
+import com.mchivellian.recruitsaddon.mission.MissionSavedData;
+import com.mchivellian.recruitsaddon.mission.MissionScheduler;
+import com.mchivellian.recruitsaddon.mission.SquadState;
+import com.mchivellian.recruitsaddon.mission.StallDetector;
+import com.mchivellian.recruitsaddon.pathing.FlowSteering;
+import com.mchivellian.recruitsaddon.pathing.RouteFollower;
+import com.mchivellian.recruitsaddon.pathing.LeaderFollower;
 import net.minecraft.core.BlockPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.entity.Entity;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
 import java.util.List;
 import java.util.UUID;
 import java.util.ArrayList;
 
 public class MarchData {
     private final UUID playerId;
+    private final ResourceKey<Level> dimension;
     private final List<UUID> recruitIds;
     private List<Entity> recruitEntities; // Store actual entities for faster access
     private final BlockPos startPosition;
@@ -19,9 +35,21 @@ public class MarchData {
     private long startTime;
     private int aliveRecruits;
     private int progressPercentage;
+    private final SquadState squad = new SquadState();
+    private final ChunkTickets.Lease tickets = new ChunkTickets.Lease();
+    private final FlowSteering steering = new FlowSteering();
+    private final RouteFollower route = new RouteFollower();
+    private final LeaderFollower following = new LeaderFollower();
+    private final StallDetector stalls = new StallDetector();
+    private boolean resuming; // Restored from disk and not yet seen its recruits
+    private long resumeDeadline = -1; // Scheduler tick until which a restored march waits for its recruits, once their chunk loaded
+    private long squadChunk = ChunkPos.INVALID_CHUNK_POS; // Chunk of the squad's main body, saved for restoring
+    private AbstractedTravel.State abstracted; // Non-null while the squad is out of the world
+    private long savedTick;
     
-    public MarchData(UUID playerId, List<UUID> recruitIds, BlockPos startPosition, BlockPos targetPosition) {
+    public MarchData(UUID playerId, ResourceKey<Level> dimension, List<UUID> recruitIds, BlockPos startPosition, BlockPos targetPosition) {
         this.playerId = playerId;
+        this.dimension = dimension;
         this.recruitIds = recruitIds;
         this.recruitEntities = new ArrayList<>(); // Initialize empty, will be set later
         this.startPosition = startPosition;
@@ -39,6 +67,10 @@ public class MarchData {
         return playerId;
     }
     
+    public ResourceKey<Level> getDimension() {
+        return dimension;
+    }
+    
     public List<UUID> getRecruitIds() {
         return recruitIds;
     }
@@ -111,6 +143,148 @@ public class MarchData {
         this.progressPercentage = Math.max(0, Math.min(100, progressPercentage));
     }
     
+    /**
+     * Reusable position snapshot of the marching recruits
+     */
+    public SquadState getSquad() {
+        return squad;
+    }
+    
+    /**
+     * Chunk tickets keeping a long-range march loaded
+     */
+    public ChunkTickets.Lease getTickets() {
+        return tickets;
+    }
+    
+    /**
+     * Flow-field steering of the squad towards the target
+     */
+    public FlowSteering getSteering() {
+        return steering;
+    }
+    
+    /**
+     * Planned route of a far-away destination
+     */
+    public RouteFollower getRoute() {
+        return route;
+    }
+    
+    /**
+     * Followers keeping formation around the march leader
+     */
+    public LeaderFollower getFollowing() {
+        return following;
+    }
+    
+    /**
+     * Stall detection of the marching squad
+     */
+    public StallDetector getStalls() {
+        return stalls;
+    }
+    
+    /**
+     * Whether this march is long enough to keep its squad's chunks loaded
+     */
+    public boolean isLongRange() {
+        int minDistance = RaidConfig.LONG_RANGE_MIN_DISTANCE.get();
+        return RaidConfig.ENABLE_LONG_RANGE_MARCH.get() && startPosition.distSqr(targetPosition) >= (double) minDistance * minDistance;
+    }
+    
+    /**
+     * Virtual squad while the march is abstracted, otherwise null
+     */
+    public AbstractedTravel.State getAbstracted() {
+        return abstracted;
+    }
+    
+    public void setAbstracted(AbstractedTravel.State abstracted) {
+        this.abstracted = abstracted;
+    }
+    
+    /**
+     * Scheduler tick of the last save to {@code MissionSavedData}
+     */
+    public long getSavedTick() {
+        return savedTick;
+    }
+    
+    /**
+     * Whether this march was restored from disk and has not yet seen its recruits
+     */
+    public boolean isResuming() {
+        return resuming;
+    }
+    
+    /**
+     * Whether a restored march should keep waiting for its recruits: as long as their saved
+     * chunk has not loaded, then for a grace period while their entities load in
+     */
+    public boolean isAwaitingResume(ServerLevel level, long currentTick) {
+        if (!resuming) return false;
+        if (resumeDeadline < 0) {
+            if (!tickets.isRestoredChunkLoaded(level)) return true;
+            resumeDeadline = currentTick + MissionSavedData.RESUME_GRACE_TICKS;
+        }
+        return currentTick < resumeDeadline;
+    }
+    
+    /**
+     * Mark the march as restored from disk, ticketing the squad's saved chunk
+     */
+    public void startResume() {
+        resuming = true;
+        resumeDeadline = -1;
+        if (abstracted == null && squadChunk != ChunkPos.INVALID_CHUNK_POS) {
+            tickets.restore(dimension, squadChunk);
+        }
+    }
+    
+    public void finishResume() {
+        resuming = false;
+        resumeDeadline = -1;
+    }
+    
+    /**
+     * Remember the chunk of the squad's main body
+     * @return true if it changed, i.e. the march should be saved again
+     */
+    public boolean trackSquadChunk(SquadState squad) {
+        long chunk = ChunkPos.asLong((int) Math.floor(squad.getBodyX()) >> 4, (int) Math.floor(squad.getBodyZ()) >> 4);
+        if (squad.size() == 0 || chunk == squadChunk) return false;
+        squadChunk = chunk;
+        return true;
+    }
+    
+    public CompoundTag save() {
+        CompoundTag tag = new CompoundTag();
+        MissionNbt.putUuids(tag, "Recruits", recruitIds);
+        tag.putLong("Start", startPosition.asLong());
+        tag.putLong("Target", targetPosition.asLong());
+        if (abstracted != null) {
+            tag.put("Abstracted", abstracted.save());
+        }
+        if (squadChunk != ChunkPos.INVALID_CHUNK_POS) {
+            tag.putLong("SquadChunk", squadChunk);
+        }
+        savedTick = MissionScheduler.getCurrentTick();
+        return tag;
+    }
+    
+    public static MarchData load(UUID playerId, ResourceKey<Level> dimension, CompoundTag tag) {
+        MarchData marchData = new MarchData(playerId, dimension, MissionNbt.getUuids(tag, "Recruits"),
+            BlockPos.of(tag.getLong("Start")), BlockPos.of(tag.getLong("Target")));
+        if (tag.contains("Abstracted")) {
+            marchData.abstracted = AbstractedTravel.State.load(tag.getCompound("Abstracted"));
+        }
+        if (tag.contains("SquadChunk")) {
+            marchData.squadChunk = tag.getLong("SquadChunk");
+        }
+        return marchData;
+    }
+    
     public int calculateProgressPercentage() {
         double totalDistance = startPosition.distSqr(targetPosition);
         double remainingDistance = currentPosition.distSqr(targetPosition);
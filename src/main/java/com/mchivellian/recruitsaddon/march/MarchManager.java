@@ -2,29 +2,41 @@ package com.mchivellian.recruitsaddon.march;
 
 import com.talhanation.recruits.entities.AbstractRecruitEntity;
 import com.mchivellian.recruitsaddon.ModMain;
-import com.mchivellian.recruitsaddon.config.RaidConfig;
+import com.mchivellian.recruitsaddon.integration.RecruitRegistry;
+import com.mchivellian.recruitsaddon.mission.MissionSavedData;
+import com.mchivellian.recruitsaddon.mission.MissionScheduler;
+import com.mchivellian.recruitsaddon.mission.MissionType;
+import com.mchivellian.recruitsaddon.mission.SquadMovement;
+import com.mchivellian.recruitsaddon.mission.SquadState;
+import com.mchivellian.recruitsaddon.mission.StallDetector;
+import com.mchivellian.recruitsaddon.pathing.FlowSteering;
+import com.mchivellian.recruitsaddon.pathing.RouteFollower;
 
 import net.minecraft.core.BlockPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.phys.AABB;
 
-import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerStartedEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 @Mod.EventBusSubscriber(modid = ModMain.MODID)
 public class MarchManager {
     private static final Map<UUID, MarchData> activeMarchData = new ConcurrentHashMap<>();
     private static final double RECRUIT_SEARCH_RADIUS = 500; // Fixed: Double.MAX_VALUE breaks entity search
     private static final double COMBAT_ENGAGEMENT_RADIUS = 16.0;
-    private static final int MARCH_TICK_INTERVAL = 20; // Check every second
-    private static int tickCounter = 0;
+    private static final double ARRIVAL_RADIUS = 3.0;
+    private static final int ABSTRACTED_SAVE_INTERVAL_TICKS = 600; // Save an abstracted march's progress every 30 seconds
     
     public static boolean startMarch(Player player, BlockPos targetPosition) {
         if (player.level() instanceof ServerLevel serverLevel) {
@@ -46,12 +58,25 @@ public class MarchManager {
             
             MarchData marchData = new MarchData(
                 player.getUUID(),
+                serverLevel.dimension(),
                 recruitIds,
                 player.blockPosition(),
                 targetPosition
             );
             
+            // Swap the direct orders for slot / flow-field orders before the recruits start their long searches
+            List<AbstractRecruitEntity> squadRecruits = new ArrayList<>();
+            for (Entity recruit : nearbyRecruits) {
+                if (recruit instanceof AbstractRecruitEntity abstractRecruit) {
+                    squadRecruits.add(abstractRecruit);
+                }
+            }
+            marchData.getSquad().update(squadRecruits, targetPosition.getX() + 0.5, targetPosition.getY(), targetPosition.getZ() + 0.5, ARRIVAL_RADIUS);
+            steerSquad(serverLevel, marchData, squadRecruits);
+            
             activeMarchData.put(player.getUUID(), marchData);
+            scheduleMarch(player.getUUID(), marchData);
+            persistMarch(serverLevel.getServer(), marchData);
             ModMain.LOGGER.info("Started march for player {} with {} recruits to {}", 
                 player.getName().getString(), recruitIds.size(), targetPosition);
             
@@ -65,11 +90,18 @@ public class MarchManager {
         MarchData marchData = activeMarchData.remove(player.getUUID());
         if (marchData != null) {
             marchData.setActive(false);
+            if (marchData.getAbstracted() != null) {
+                // Put the abstracted squad back where it currently is; its saved state is dropped once it is back
+                restoreAbstractedWhenLoaded(player.getServer(), marchData, true);
+            } else {
+                marchData.getTickets().releaseAll();
+                MissionSavedData.discard(player.getServer(), marchData.getDimension(), MissionType.MARCH, player.getUUID());
+            }
             
             if (player.level() instanceof ServerLevel serverLevel) {
                 // Set recruits to hold position
                 for (UUID recruitId : marchData.getRecruitIds()) {
-                    Entity recruit = serverLevel.getEntity(recruitId);
+                    Entity recruit = RecruitRegistry.get(serverLevel, recruitId);
                     if (recruit != null) {
                         stopRecruit(recruit);
                     }
@@ -86,90 +118,289 @@ public class MarchManager {
         return activeMarchData.get(player.getUUID());
     }
     
+    /**
+     * Resume marches that were in progress when the server last stopped
+     */
     @SubscribeEvent
-    public static void onServerTick(TickEvent.ServerTickEvent event) {
-        if (event.phase == TickEvent.Phase.END) {
-            tickCounter++;
-            if (tickCounter >= MARCH_TICK_INTERVAL) {
-                tickCounter = 0;
-                updateActiveMarchData();
+    public static void onServerStarted(ServerStartedEvent event) {
+        for (ServerLevel level : event.getServer().getAllLevels()) {
+            for (Map.Entry<UUID, CompoundTag> entry : MissionSavedData.get(level).getAll(MissionType.MARCH).entrySet()) {
+                MarchData marchData = MarchData.load(entry.getKey(), level.dimension(), entry.getValue());
+                marchData.startResume(); // Tickets the squad's saved chunk so it loads without a player nearby
+                activeMarchData.put(entry.getKey(), marchData);
+                scheduleMarch(entry.getKey(), marchData);
             }
         }
+        if (!activeMarchData.isEmpty()) {
+            ModMain.LOGGER.info("Resumed {} saved marches", activeMarchData.size());
+        }
+    }
+    
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        activeMarchData.clear();
+    }
+    
+    private static void persistMarch(MinecraftServer server, MarchData marchData) {
+        MissionSavedData.store(server, marchData.getDimension(), MissionType.MARCH, marchData.getPlayerId(), marchData.save());
+    }
+    
+    /**
+     * Put a stopped or finished march's abstracted squad back into the world from its own
+     * scheduled task, once the chunks it spawns into are loaded. The march's saved state is
+     * only discarded after that, so a restart in between still has the recruits.
+     */
+    private static void restoreAbstractedWhenLoaded(MinecraftServer server, MarchData marchData, boolean stop) {
+        AbstractedTravel.State state = marchData.getAbstracted();
+        Set<Long> chunks = AbstractedTravel.spawnChunks(state, marchData.getTargetPosition());
+        MissionScheduler.schedule(MissionType.MARCH, s -> {
+            ServerLevel level = s.getLevel(marchData.getDimension());
+            if (level == null) {
+                return true; // Dimension gone: the saved state stays for the next start
+            }
+            if (!marchData.getTickets().hold(level, chunks)) {
+                return false; // Chunks still loading, or the ticket budget is used up
+            }
+            for (AbstractRecruitEntity recruit : restoreAbstracted(s, marchData)) {
+                if (stop) {
+                    stopRecruit(recruit);
+                }
+            }
+            if (marchData.getAbstracted() != null) {
+                persistMarch(s, marchData); // Keep the recruits the level refused saved and retry them
+                return false;
+            }
+            marchData.getTickets().releaseAll();
+            if (!activeMarchData.containsKey(marchData.getPlayerId())) {
+                MissionSavedData.discard(s, marchData.getDimension(), MissionType.MARCH, marchData.getPlayerId());
+            }
+            return true;
+        }, s -> marchData.getTickets().releaseAll()); // The saved state keeps the squad for the next start
     }
     
-    private static void updateActiveMarchData() {
-        Iterator<Map.Entry<UUID, MarchData>> iterator = activeMarchData.entrySet().iterator();
+    /**
+     * Spawn an abstracted march's recruits back at its virtual position; the chunks must be loaded.
+     * The march stays abstracted while some recruits are still waiting to be spawned, and forgets
+     * recruits that can never be restored.
+     * @return the restored recruits (empty if the march was not abstracted)
+     */
+    private static List<AbstractRecruitEntity> restoreAbstracted(MinecraftServer server, MarchData marchData) {
+        AbstractedTravel.State state = marchData.getAbstracted();
+        ServerLevel level = server.getLevel(marchData.getDimension());
+        if (state == null || level == null) {
+            return new ArrayList<>();
+        }
+        AbstractedTravel.Restored restored = AbstractedTravel.materialize(level, state, marchData.getTargetPosition());
+        marchData.getRecruitIds().removeAll(restored.lost);
+        if (state.isEmpty()) {
+            marchData.setAbstracted(null);
+        }
+        return restored.recruits;
+    }
+    
+    /**
+     * Update of an abstracted march: advance the virtual squad, and put it back into the world
+     * once it arrives or a player comes near
+     */
+    private static void updateAbstracted(ServerLevel level, MarchData marchData) {
+        marchData.finishResume(); // Nothing to wait for, the recruits are in the saved state
+        long now = MissionScheduler.getCurrentTick();
+        if (!AbstractedTravel.advance(level, marchData.getAbstracted(), now)) {
+            if (now - marchData.getSavedTick() >= ABSTRACTED_SAVE_INTERVAL_TICKS) {
+                persistMarch(level.getServer(), marchData);
+            }
+            return;
+        }
         
-        while (iterator.hasNext()) {
-            Map.Entry<UUID, MarchData> entry = iterator.next();
-            MarchData marchData = entry.getValue();
-            
-            // Update march status
-            if (updateMarchStatus(marchData)) {
-                // March completed or should be removed
-                iterator.remove();
+        BlockPos target = marchData.getTargetPosition();
+        if (!marchData.getTickets().hold(level, AbstractedTravel.spawnChunks(marchData.getAbstracted(), target))) {
+            return; // Spawn chunks are still loading
+        }
+        List<AbstractRecruitEntity> recruits = restoreAbstracted(level.getServer(), marchData);
+        for (AbstractRecruitEntity recruit : recruits) {
+            setRecruitMarchTarget(recruit, target);
+        }
+        if (marchData.getAbstracted() != null) {
+            persistMarch(level.getServer(), marchData); // Some recruits were refused; keep their chunks and retry
+            return;
+        }
+
+        // Ticket the new position right away, or the chunks unload again before the next update
+        SquadState squad = marchData.getSquad();
+        squad.update(recruits, target.getX() + 0.5, target.getY(), target.getZ() + 0.5, ARRIVAL_RADIUS);
+        if (!recruits.isEmpty()) {
+            marchData.getTickets().update(level, squad, target.getX() + 0.5, target.getZ() + 0.5);
+        }
+        persistMarch(level.getServer(), marchData);
+    }
+    
+    /**
+     * Route the squad for this update: followers keep their slots around the leader, and the
+     * leader (or, without one, every recruit) follows the planned route while far away and the
+     * destination's shared flow field once close. The last stretch is pathed individually.
+     * Recruits on a stall detour are left alone until they are back on course.
+     * @param recruits living members, in the same order as the march's {@link SquadState}
+     */
+    private static void steerSquad(ServerLevel level, MarchData marchData, List<AbstractRecruitEntity> recruits) {
+        BlockPos target = marchData.getTargetPosition();
+        SquadState squad = marchData.getSquad();
+        RouteFollower route = marchData.getRoute();
+        FlowSteering steering = marchData.getSteering();
+        StallDetector stalls = marchData.getStalls();
+        route.prepare(level, squad, target);
+        steering.prepare(level, target, recruits.size());
+        AbstractRecruitEntity leader = marchData.getFollowing().update(recruits, squad, target, stalls,
+            recruit -> setRecruitMarchTarget(recruit, target));
+        
+        for (int i = 0; i < recruits.size(); i++) {
+            AbstractRecruitEntity recruit = recruits.get(i);
+            if (squad.hasArrived(i) || (leader != null && recruit != leader) || stalls.isDetouring(recruit)) continue;
+            if (route.steer(recruit, r -> setRecruitMarchTarget(r, target))) continue;
+            steering.steer(recruit, r -> setRecruitMarchTarget(r, target));
+        }
+    }
+    
+    /**
+     * Send a stalled recruit its current steering order again: its formation slot, route
+     * waypoint or flow-field waypoint, and only without any of those the destination itself
+     */
+    private static void resteer(MarchData marchData, AbstractRecruitEntity recruit) {
+        BlockPos target = marchData.getTargetPosition();
+        Consumer<AbstractRecruitEntity> missionOrder = r -> setRecruitMarchTarget(r, target);
+        if (marchData.getFollowing().reissue(recruit)) return;
+        
+        marchData.getRoute().forget(recruit.getUUID());
+        if (marchData.getRoute().steer(recruit, missionOrder)) return;
+        marchData.getSteering().forget(recruit.getUUID());
+        if (marchData.getSteering().steer(recruit, missionOrder)) return;
+        missionOrder.accept(recruit);
+    }
+    
+    private static void scheduleMarch(UUID playerId, MarchData marchData) {
+        MissionScheduler.schedule(MissionType.MARCH, server -> updateMarch(server, playerId, marchData),
+            server -> abandonMarch(server, playerId, marchData));
+    }
+    
+    /**
+     * Clean up after a march whose update threw and was dropped by the scheduler, as stopping it would
+     */
+    private static void abandonMarch(MinecraftServer server, UUID playerId, MarchData marchData) {
+        boolean removed = activeMarchData.remove(playerId, marchData);
+        marchData.setActive(false);
+        if (marchData.getAbstracted() != null) {
+            restoreAbstractedWhenLoaded(server, marchData, true);
+            return;
+        }
+        marchData.getTickets().releaseAll();
+        if (removed) {
+            MissionSavedData.discard(server, marchData.getDimension(), MissionType.MARCH, playerId);
+        }
+    }
+    
+    /**
+     * Scheduled update for one march (see {@link MissionScheduler})
+     * @return true once the march is finished or has been replaced/stopped
+     */
+    private static boolean updateMarch(MinecraftServer server, UUID playerId, MarchData marchData) {
+        if (activeMarchData.get(playerId) != marchData) {
+            return true; // Stopped or superseded by a newer march
+        }
+        
+        // Update march status
+        if (updateMarchStatus(server, marchData)) {
+            // March completed or should be removed
+            boolean removed = activeMarchData.remove(playerId, marchData);
+            if (marchData.getAbstracted() != null) {
+                restoreAbstractedWhenLoaded(server, marchData, false);
+                return true;
             }
+            marchData.getTickets().releaseAll();
+            if (removed) {
+                MissionSavedData.discard(server, marchData.getDimension(), MissionType.MARCH, playerId);
+            }
+            return true;
         }
+        return false;
     }
     
     /**
      * Tick update for a single active march. Handles arrival detection and final defensive posture.
      */
-    private static boolean updateMarchStatus(MarchData marchData) {
+    private static boolean updateMarchStatus(MinecraftServer server, MarchData marchData) {
         // If march was externally flagged inactive, remove it.
         if (!marchData.isActive()) {
             return true;
         }
 
-        ServerLevel level = null;
-        List<Entity> validRecruits = new ArrayList<>();
-
-        // Fetch recruit entities and determine level from the first one
-        for (UUID id : marchData.getRecruitIds()) {
-            // If we don't yet have a level reference, try to resolve it via server-level iteration
-            if (level == null) {
-                for (ServerLevel srvLevel : net.minecraftforge.server.ServerLifecycleHooks.getCurrentServer().getAllLevels()) {
-                    Entity maybe = srvLevel.getEntity(id);
-                    if (maybe != null) {
-                        level = srvLevel;
-                        break;
-                    }
-                }
-            }
-            if (level == null) {
-                continue;
-            }
-            Entity e = level.getEntity(id);
-            if (e instanceof AbstractRecruitEntity recruit && recruit.isAlive()) {
-                validRecruits.add(recruit);
-            }
+        ServerLevel level = server.getLevel(marchData.getDimension());
+        if (level != null && marchData.getAbstracted() != null) {
+            updateAbstracted(level, marchData);
+            return false;
+        }
+        
+        if (level != null) {
+            marchData.getTickets().unpark(level); // Restored march: ticket the squad's saved chunk
         }
+        List<AbstractRecruitEntity> validRecruits = level != null
+            ? RecruitRegistry.resolveAlive(level, marchData.getRecruitIds()) : new ArrayList<>();
 
         if (validRecruits.isEmpty()) {
+            long now = MissionScheduler.getCurrentTick();
+            if (marchData.isAwaitingResume(level, now)) {
+                return false; // Restored march: recruits' chunks may not be loaded yet
+            }
+            if (marchData.getTickets().awaitSquad(now)) {
+                return false; // Long-range march: the ticketed chunks are loading back in
+            }
             marchData.setActive(false);
             return true; // Nothing left to manage
         }
+        
+        if (marchData.isResuming()) {
+            // First update after a restart: re-issue the march order so recruits do not sit on stale targets
+            marchData.finishResume();
+            marchData.getTickets().releaseAll(); // Restore ticket done; a long-range march re-tickets its squad below
+            for (AbstractRecruitEntity recruit : validRecruits) {
+                setRecruitMarchTarget(recruit, marchData.getTargetPosition());
+            }
+        }
 
         // Check for lagging recruits and teleport them if needed (only during movement)
-        List<AbstractRecruitEntity> recruitList = new ArrayList<>();
-        for (Entity ent : validRecruits) {
-            if (ent instanceof AbstractRecruitEntity recruit) {
-                recruitList.add(recruit);
+        BlockPos target = marchData.getTargetPosition();
+        SquadState squad = marchData.getSquad();
+        squad.update(validRecruits, target.getX() + 0.5, target.getY(), target.getZ() + 0.5, ARRIVAL_RADIUS);
+        if (marchData.trackSquadChunk(squad)) {
+            persistMarch(server, marchData); // Keep the saved chunk current for a restart
+        }
+        SquadMovement.teleportLaggingRecruits(squad, validRecruits, target, level, "march",
+            recruit -> setRecruitMarchTarget(recruit, target));
+        
+        // Nobody is watching: take the squad out of the world and move it virtually
+        if (!squad.allArrived() && AbstractedTravel.canAbstract(level, marchData, validRecruits, squad)) {
+            AbstractedTravel.State state = AbstractedTravel.abstractSquad(marchData, validRecruits, squad, MissionScheduler.getCurrentTick());
+            if (state != null) {
+                marchData.getTickets().releaseAll();
+                marchData.setAbstracted(state);
+                persistMarch(server, marchData);
+                MissionSavedData.flush(level); // The saved tags are the recruits' only copy once they leave the world
+                AbstractedTravel.removeFromWorld(validRecruits);
+                return false;
             }
         }
-        teleportLaggingRecruits(recruitList, marchData.getTargetPosition(), level, "march");
+        
+        // Keep the squad's chunks and the way ahead loaded when no player is around
+        if (marchData.isLongRange()) {
+            marchData.getTickets().update(level, squad, target.getX() + 0.5, target.getZ() + 0.5);
+        }
+        
+        steerSquad(level, marchData, validRecruits);
+        
+        // Free recruits, or the whole squad, that stopped getting closer to the target
+        marchData.getStalls().update(validRecruits, squad, target, MissionScheduler.getCurrentTick(),
+            recruit -> resteer(marchData, recruit));
 
         // Check if all recruits have reached the destination
-        boolean allArrived = true;
-        for (Entity ent : validRecruits) {
-            double dx = ent.getX() - (marchData.getTargetPosition().getX() + 0.5);
-            double dz = ent.getZ() - (marchData.getTargetPosition().getZ() + 0.5);
-            double dy = ent.getY() - marchData.getTargetPosition().getY();
-            if ((dx*dx + dy*dy + dz*dz) > 9) {
-                allArrived = false;
-                break;
-            }
-        }
+        boolean allArrived = squad.allArrived();
 
         if (!allArrived) {
             return false; // Still marching
@@ -179,8 +410,7 @@ public class MarchManager {
         if (!marchData.isCompleted()) {
             marchData.setCompleted(true);
 
-            for (Entity ent : validRecruits) {
-                AbstractRecruitEntity recruit = (AbstractRecruitEntity) ent;
+            for (AbstractRecruitEntity recruit : validRecruits) {
                 // Stop movement
                 recruit.setShouldMovePos(false);
                 recruit.clearMovePos();
@@ -228,68 +458,6 @@ public class MarchManager {
         }
     }
 
-    /**
-     * Teleports recruits who have fallen too far behind the main group during movement phase.
-     * Only applies during movement, not after arrival.
-     */
-    private static void teleportLaggingRecruits(List<AbstractRecruitEntity> recruits, BlockPos targetPos, ServerLevel level, String operationType) {
-        if (!RaidConfig.ENABLE_TELEPORTATION.get() || recruits.size() <= 1) return; // Need at least 2 recruits to determine who's lagging
-        
-        // Calculate average position of all recruits
-        double avgX = 0, avgY = 0, avgZ = 0;
-        int validRecruits = 0;
-        
-        for (AbstractRecruitEntity recruit : recruits) {
-            if (recruit.isAlive()) {
-                avgX += recruit.getX();
-                avgY += recruit.getY();
-                avgZ += recruit.getZ();
-                validRecruits++;
-            }
-        }
-        
-        if (validRecruits == 0) return;
-        
-        avgX /= validRecruits;
-        avgY /= validRecruits;
-        avgZ /= validRecruits;
-        
-        int lagDistance = RaidConfig.TELEPORTATION_DISTANCE_THRESHOLD.get();
-        int progressDistance = RaidConfig.TELEPORTATION_PROGRESS_THRESHOLD.get();
-        final double LAG_THRESHOLD = lagDistance * lagDistance; // Convert to squared for distance comparison
-        final double MIN_PROGRESS_THRESHOLD = progressDistance * progressDistance; // Convert to squared
-        
-        // Check if the group has moved significantly from spawn (avoid teleporting at start)
-        double groupProgressToTarget = (avgX - targetPos.getX()) * (avgX - targetPos.getX()) + 
-                                     (avgZ - targetPos.getZ()) * (avgZ - targetPos.getZ());
-        
-        for (AbstractRecruitEntity recruit : recruits) {
-            if (!recruit.isAlive()) continue;
-            
-            double distanceFromGroup = (recruit.getX() - avgX) * (recruit.getX() - avgX) + 
-                                     (recruit.getY() - avgY) * (recruit.getY() - avgY) + 
-                                     (recruit.getZ() - avgZ) * (recruit.getZ() - avgZ);
-            
-            // Only teleport if recruit is far from group AND group has made progress
-            if (distanceFromGroup > LAG_THRESHOLD && groupProgressToTarget > MIN_PROGRESS_THRESHOLD) {
-                // Find a safe position near the group center
-                BlockPos teleportPos = com.talhanation.recruits.util.FormationUtils.getPositionOrSurface(
-                    level, new BlockPos((int)avgX, (int)avgY, (int)avgZ));
-                
-                // Teleport the lagging recruit
-                recruit.teleportTo(teleportPos.getX() + 0.5, teleportPos.getY(), teleportPos.getZ() + 0.5);
-                recruit.clearMovePos();
-                recruit.setShouldMovePos(false);
-                
-                // Reset their target to continue the mission
-                setRecruitMarchTarget(recruit, targetPos);
-                
-                ModMain.LOGGER.info("Teleported lagging {} recruit {} to group position ({}, {}, {})", 
-                    operationType, recruit.getUUID(), teleportPos.getX(), teleportPos.getY(), teleportPos.getZ());
-            }
-        }
-    }
-    
     private static List<Entity> findNearbyRecruits(Player player, ServerLevel level) {
         // Try to get selected recruits first, then nearby
         List<AbstractRecruitEntity> selectedRecruits = com.mchivellian.recruitsaddon.integration.RecruitsIntegration.getSelectedRecruits(player);
@@ -0,0 +1,287 @@
+package com.mchivellian.recruitsaddon.mission;
+
+import com.mchivellian.recruitsaddon.ModMain;
+import com.mchivellian.recruitsaddon.config.RaidConfig;
+import com.mchivellian.recruitsaddon.perf.PerfCounter;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.TicketType;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.server.ServerLifecycleHooks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Chunk tickets that keep long-range squads simulated while no player is near them.
+ * - Each ticketed chunk is entity-ticking; the surrounding chunks are only loaded
+ * - Tickets are ref-counted, so squads sharing a chunk share its ticket
+ * - The number of distinct tickets server-wide is capped by config; once the budget is used up
+ *   further chunks are simply not ticketed (the squad's own chunk is always requested first)
+ * Missions hold their tickets through a {@link Lease}.
+ */
+@Mod.EventBusSubscriber(modid = ModMain.MODID)
+public final class ChunkTickets {
+    
+    private static final TicketType<ChunkPos> SQUAD_TICKET =
+        TicketType.create("recruitsaddon_squad", Comparator.comparingLong(ChunkPos::toLong));
+    private static final int TICKET_DISTANCE = 2; // 33 - 2 = entity-ticking for the ticketed chunk itself
+    private static final int MAX_MEMBER_CHUNKS = 4; // Extra chunks for recruits spread away from the main body
+    
+    private static final Map<ResourceKey<Level>, Map<Long, Integer>> refCounts = new HashMap<>();
+    private static int heldTickets = 0;
+    
+    private ChunkTickets() {}
+    
+    /**
+     * Number of distinct chunk tickets currently held by missions
+     */
+    public static int getHeldTickets() {
+        return heldTickets;
+    }
+    
+    private static boolean acquire(ServerLevel level, long chunkKey) {
+        Map<Long, Integer> counts = refCounts.computeIfAbsent(level.dimension(), key -> new HashMap<>());
+        Integer refs = counts.get(chunkKey);
+        if (refs == null) {
+            if (heldTickets >= RaidConfig.CHUNK_TICKET_BUDGET.get()) {
+                PerfCounter.TICKETS_DENIED.increment();
+                return false;
+            }
+            ChunkPos pos = new ChunkPos(chunkKey);
+            level.getChunkSource().addRegionTicket(SQUAD_TICKET, pos, TICKET_DISTANCE, pos);
+            heldTickets++;
+            refs = 0;
+        }
+        counts.put(chunkKey, refs + 1);
+        return true;
+    }
+    
+    private static void release(ResourceKey<Level> dimension, long chunkKey) {
+        Map<Long, Integer> counts = refCounts.get(dimension);
+        Integer refs = counts != null ? counts.get(chunkKey) : null;
+        if (refs == null) return;
+        
+        if (refs > 1) {
+            counts.put(chunkKey, refs - 1);
+            return;
+        }
+        counts.remove(chunkKey);
+        heldTickets--;
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        ServerLevel level = server != null ? server.getLevel(dimension) : null;
+        if (level != null) {
+            ChunkPos pos = new ChunkPos(chunkKey);
+            level.getChunkSource().removeRegionTicket(SQUAD_TICKET, pos, TICKET_DISTANCE, pos);
+        }
+    }
+    
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        refCounts.clear();
+        heldTickets = 0;
+    }
+    
+    /**
+     * Tickets held by one mission. Each update the lease is moved to the squad's current chunks
+     * plus a few chunks ahead on the way to the target. Server thread only.
+     */
+    public static class Lease {
+        private final Set<Long> held = new HashSet<>();
+        private final List<Long> desired = new ArrayList<>();
+        private final Set<Long> desiredSet = new HashSet<>();
+        private final Set<Long> parked = new HashSet<>(); // Chunks to re-ticket on unpark()
+        private long restoredChunk = ChunkPos.INVALID_CHUNK_POS;
+        private ResourceKey<Level> dimension;
+        private long waitDeadline = -1;
+        
+        /**
+         * Move the lease to the squad's chunks. Chunks are requested in priority order: the main body,
+         * the chunks ahead towards the target, then chunks of stragglers.
+         */
+        public void update(ServerLevel level, SquadState squad, double targetX, double targetZ) {
+            waitDeadline = -1;
+            if (dimension != null && dimension != level.dimension()) {
+                releaseAll();
+            }
+            dimension = level.dimension();
+            
+            collectSquadChunks(squad, targetX, targetZ, RaidConfig.LONG_RANGE_LOOKAHEAD_CHUNKS.get());
+            sync(level);
+        }
+        
+        /**
+         * Hold exactly these chunks, e.g. where an abstracted squad is about to be spawned
+         * @return true once every one of them is ticketed and loaded
+         */
+        public boolean hold(ServerLevel level, Collection<Long> chunks) {
+            waitDeadline = -1;
+            if (dimension != null && dimension != level.dimension()) {
+                releaseAll();
+            }
+            dimension = level.dimension();
+            
+            desired.clear();
+            desiredSet.clear();
+            for (long key : chunks) {
+                if (desiredSet.add(key)) {
+                    desired.add(key);
+                }
+            }
+            sync(level);
+            
+            for (long key : desired) {
+                if (!held.contains(key) || !level.hasChunk(ChunkPos.getX(key), ChunkPos.getZ(key))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        /**
+         * Release held chunks that are no longer desired, then ticket desired ones in order
+         */
+        private void sync(ServerLevel level) {
+            Iterator<Long> it = held.iterator();
+            while (it.hasNext()) {
+                long key = it.next();
+                if (!desiredSet.contains(key)) {
+                    it.remove();
+                    release(dimension, key);
+                }
+            }
+            for (long key : desired) {
+                if (!held.contains(key)) {
+                    if (!acquire(level, key)) break; // Budget used up
+                    held.add(key);
+                }
+            }
+        }
+        
+        /**
+         * Called when none of the squad's recruits can be resolved: keep the current tickets so the
+         * chunks load back in, and wait a grace period for the recruits to reappear.
+         * @return true while the mission should keep waiting
+         */
+        public boolean awaitSquad(long currentTick) {
+            if (held.isEmpty()) return false;
+            if (waitDeadline < 0) {
+                waitDeadline = currentTick + MissionSavedData.RESUME_GRACE_TICKS;
+            }
+            return currentTick < waitDeadline;
+        }
+        
+        public boolean isHolding() {
+            return !held.isEmpty();
+        }
+        
+        public void releaseAll() {
+            parked.clear();
+            restoredChunk = ChunkPos.INVALID_CHUNK_POS;
+            releaseHeld();
+        }
+        
+        /**
+         * Mission restored from disk: ticket the squad's saved chunk on the next {@link #unpark},
+         * so recruits far from any player load back in
+         */
+        public void restore(ResourceKey<Level> dimension, long chunkKey) {
+            this.dimension = dimension;
+            parked.add(chunkKey);
+            restoredChunk = chunkKey;
+        }
+        
+        /**
+         * Whether the chunk passed to {@link #restore} has loaded (true if there is none)
+         */
+        public boolean isRestoredChunkLoaded(ServerLevel level) {
+            if (restoredChunk == ChunkPos.INVALID_CHUNK_POS) return true;
+            return level == null || level.hasChunk(ChunkPos.getX(restoredChunk), ChunkPos.getZ(restoredChunk));
+        }
+        
+        /**
+         * Release the tickets while the mission's owner is away, so an idle mission does not keep
+         * chunks loaded or use up the shared budget; {@link #unpark} tickets the same chunks again
+         */
+        public void park() {
+            parked.addAll(held);
+            releaseHeld();
+        }
+        
+        /**
+         * Ticket the chunks held before {@link #park} again, so the squad loads back in
+         */
+        public void unpark(ServerLevel level) {
+            if (parked.isEmpty()) return;
+            
+            if (level == null || level.dimension() != dimension) {
+                parked.clear();
+                return;
+            }
+            Iterator<Long> it = parked.iterator();
+            while (it.hasNext()) {
+                long key = it.next();
+                if (!held.contains(key)) {
+                    if (!acquire(level, key)) return; // Budget used up: the rest is retried on the next call
+                    held.add(key);
+                }
+                it.remove();
+            }
+        }
+        
+        private void releaseHeld() {
+            for (long key : held) {
+                release(dimension, key);
+            }
+            held.clear();
+            waitDeadline = -1;
+        }
+        
+        private void collectSquadChunks(SquadState squad, double targetX, double targetZ, int lookahead) {
+            desired.clear();
+            desiredSet.clear();
+            
+            double x = squad.getBodyX();
+            double z = squad.getBodyZ();
+            addChunk(x, z);
+            
+            double dx = targetX - x;
+            double dz = targetZ - z;
+            double distance = Math.sqrt(dx * dx + dz * dz);
+            if (distance > 0) {
+                int steps = Math.min(lookahead, (int) (distance / 16));
+                for (int step = 1; step <= steps; step++) {
+                    addChunk(x + dx / distance * 16 * step, z + dz / distance * 16 * step);
+                }
+            }
+            
+            int memberChunks = 0;
+            for (int i = 0; i < squad.size() && memberChunks < MAX_MEMBER_CHUNKS; i++) {
+                if (addChunk(squad.getX(i), squad.getZ(i))) {
+                    memberChunks++;
+                }
+            }
+        }
+        
+        private boolean addChunk(double x, double z) {
+            long key = ChunkPos.asLong((int) Math.floor(x) >> 4, (int) Math.floor(z) >> 4);
+            if (desiredSet.add(key)) {
+                desired.add(key);
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.mchivellian.recruitsaddon.mission;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reverse index from recruit UUID to the active mission it belongs to.
+ * Lets recruit hurt / death events find their mission with one lookup instead of
+ * scanning every mission's recruit list. Managers add a mission when it becomes
+ * active and remove it when it ends.
+ */
+public class MissionIndex<M> {
+    
+    private final Map<UUID, M> byRecruit = new ConcurrentHashMap<>();
+    
+    public void add(M mission, Collection<UUID> recruitIds) {
+        for (UUID recruitId : recruitIds) {
+            byRecruit.put(recruitId, mission);
+        }
+    }
+    
+    /**
+     * Unlink the mission's recruits, leaving recruits that were since claimed by another mission alone
+     */
+    public void remove(M mission, Collection<UUID> recruitIds) {
+        for (UUID recruitId : recruitIds) {
+            byRecruit.remove(recruitId, mission);
+        }
+    }
+    
+    /**
+     * Active mission of this recruit, or null
+     */
+    public M get(UUID recruitId) {
+        return byRecruit.get(recruitId);
+    }
+    
+    public int size() {
+        return byRecruit.size();
+    }
+    
+    public void clear() {
+        byRecruit.clear();
+    }
+}
@@ -0,0 +1,55 @@
+package com.mchivellian.recruitsaddon.mission;
+
+import net.minecraft.nbt.CompoundTag;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compact NBT encodings used by persisted missions: UUIDs as two longs in a LongArray,
+ * BlockPos via {@link net.minecraft.core.BlockPos#asLong()}, enum phases as ordinal bytes.
+ */
+public final class MissionNbt {
+    
+    private MissionNbt() {}
+    
+    public static void putUuid(CompoundTag tag, String key, UUID id) {
+        tag.putLongArray(key, new long[] {id.getMostSignificantBits(), id.getLeastSignificantBits()});
+    }
+    
+    /**
+     * @return the stored UUID, or null if the key is missing or malformed
+     */
+    public static UUID getUuid(CompoundTag tag, String key) {
+        long[] bits = tag.getLongArray(key);
+        return bits.length == 2 ? new UUID(bits[0], bits[1]) : null;
+    }
+    
+    public static void putUuids(CompoundTag tag, String key, List<UUID> ids) {
+        long[] bits = new long[ids.size() * 2];
+        for (int i = 0; i < ids.size(); i++) {
+            UUID id = ids.get(i);
+            bits[i * 2] = id.getMostSignificantBits();
+            bits[i * 2 + 1] = id.getLeastSignificantBits();
+        }
+        tag.putLongArray(key, bits);
+    }
+    
+    public static List<UUID> getUuids(CompoundTag tag, String key) {
+        long[] bits = tag.getLongArray(key);
+        List<UUID> ids = new ArrayList<>(bits.length / 2);
+        for (int i = 0; i + 1 < bits.length; i += 2) {
+            ids.add(new UUID(bits[i], bits[i + 1]));
+        }
+        return ids;
+    }
+    
+    /**
+     * Read an enum stored as its ordinal byte, falling back when the ordinal is out of range
+     */
+    public static <E extends Enum<E>> E getEnum(CompoundTag tag, String key, E[] values, E fallback) {
+        int ordinal = tag.getByte(key);
+        return ordinal >= 0 && ordinal < values.length ? values[ordinal] : fallback;
+    }
+}
@@ -0,0 +1,137 @@
+package com.mchivellian.recruitsaddon.mission;
+
+import com.mchivellian.recruitsaddon.ModMain;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.dimension.DimensionType;
+import net.minecraft.world.level.saveddata.SavedData;
+import net.minecraft.world.level.storage.LevelResource;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Per-level store of in-progress missions, so marches and raids survive a restart.
+ * Managers push a freshly encoded tag whenever a mission starts or changes phase and
+ * drop it when the mission ends; the level is only marked dirty if the tag differs.
+ * Missions are restored by their managers on server start.
+ */
+public class MissionSavedData extends SavedData {
+    
+    private static final String DATA_NAME = ModMain.MODID + "_missions";
+    private static final String KEY_TAG = "Key";
+    
+    /**
+     * How long a restored mission waits for its recruits' chunks to load before the usual
+     * "no recruits left" checks apply again
+     */
+    public static final int RESUME_GRACE_TICKS = 1200; // 1 minute
+    
+    private final Map<MissionType, Map<UUID, CompoundTag>> missions = new EnumMap<>(MissionType.class);
+    
+    public MissionSavedData() {
+        for (MissionType type : MissionType.values()) {
+            missions.put(type, new LinkedHashMap<>());
+        }
+    }
+    
+    public static MissionSavedData get(ServerLevel level) {
+        return level.getDataStorage().computeIfAbsent(MissionSavedData::load, MissionSavedData::new, DATA_NAME);
+    }
+    
+    /**
+     * Store or update a mission in the given dimension (no-op if the dimension is not loaded)
+     */
+    public static void store(MinecraftServer server, ResourceKey<Level> dimension, MissionType type, UUID key, CompoundTag data) {
+        ServerLevel level = server != null ? server.getLevel(dimension) : null;
+        if (level != null) {
+            get(level).put(type, key, data);
+        }
+    }
+    
+    /**
+     * Write the level's mission file to disk now instead of at the next autosave. Blocking, so
+     * only for the rare case where a saved tag is the only copy of an entity. Only this file is
+     * written, not the level's other saved data.
+     */
+    public static void flush(ServerLevel level) {
+        MissionSavedData data = get(level);
+        if (data.isDirty()) {
+            // Same file the level's data storage uses: <dimension folder>/data/<name>.dat
+            Path dataFolder = DimensionType.getStorageFolder(level.dimension(),
+                level.getServer().getWorldPath(LevelResource.ROOT)).resolve("data");
+            data.save(dataFolder.resolve(DATA_NAME + ".dat").toFile());
+        }
+    }
+    
+    /**
+     * Forget a finished or cancelled mission
+     */
+    public static void discard(MinecraftServer server, ResourceKey<Level> dimension, MissionType type, UUID key) {
+        ServerLevel level = server != null ? server.getLevel(dimension) : null;
+        if (level != null) {
+            get(level).remove(type, key);
+        }
+    }
+    
+    public void put(MissionType type, UUID key, CompoundTag data) {
+        CompoundTag previous = missions.get(type).put(key, data);
+        if (!data.equals(previous)) {
+            setDirty();
+        }
+    }
+    
+    public void remove(MissionType type, UUID key) {
+        if (missions.get(type).remove(key) != null) {
+            setDirty();
+        }
+    }
+    
+    /**
+     * Stored missions of one type, keyed by mission key (read-only view)
+     */
+    public Map<UUID, CompoundTag> getAll(MissionType type) {
+        return Collections.unmodifiableMap(missions.get(type));
+    }
+    
+    public static MissionSavedData load(CompoundTag tag) {
+        MissionSavedData data = new MissionSavedData();
+        for (MissionType type : MissionType.values()) {
+            ListTag entries = tag.getList(type.name(), Tag.TAG_COMPOUND);
+            for (int i = 0; i < entries.size(); i++) {
+                CompoundTag entry = entries.getCompound(i);
+                UUID key = MissionNbt.getUuid(entry, KEY_TAG);
+                if (key == null) continue;
+                
+                entry.remove(KEY_TAG);
+                data.missions.get(type).put(key, entry);
+            }
+        }
+        return data;
+    }
+    
+    @Override
+    public CompoundTag save(CompoundTag tag) {
+        for (Map.Entry<MissionType, Map<UUID, CompoundTag>> section : missions.entrySet()) {
+            if (section.getValue().isEmpty()) continue;
+            
+            ListTag entries = new ListTag();
+            for (Map.Entry<UUID, CompoundTag> mission : section.getValue().entrySet()) {
+                CompoundTag entry = mission.getValue().copy();
+                MissionNbt.putUuid(entry, KEY_TAG, mission.getKey());
+                entries.add(entry);
+            }
+            tag.put(section.getKey().name(), entries);
+        }
+        return tag;
+    }
+}
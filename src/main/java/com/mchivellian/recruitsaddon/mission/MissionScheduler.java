@@ -0,0 +1,180 @@
+package com.mchivellian.recruitsaddon.mission;
+
+import com.mchivellian.recruitsaddon.ModMain;
+import com.mchivellian.recruitsaddon.config.RaidConfig;
+import com.mchivellian.recruitsaddon.perf.PerfCounter;
+import com.mchivellian.recruitsaddon.perf.PerfMetric;
+import net.minecraft.server.MinecraftServer;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Single server-tick driver for every march / raid mission.
+ * - Missions are staggered across ticks instead of all firing on the same tick
+ * - Each mission type has its own update rate (see {@link MissionType})
+ * - Updates stop for the tick once the configured microsecond budget is used up;
+ *   the remaining due missions run first thing on the next tick
+ * It also advances the shared {@link TickTimerWheel} used for delayed mission actions.
+ */
+@Mod.EventBusSubscriber(modid = ModMain.MODID)
+public class MissionScheduler {
+    
+    private static final PriorityQueue<ScheduledMission> queue = new PriorityQueue<>(
+        Comparator.comparingLong((ScheduledMission mission) -> mission.nextRunTick)
+            .thenComparingLong(mission -> mission.sequence));
+    private static final TickTimerWheel timers = new TickTimerWheel();
+    private static long currentTick = 0;
+    private static long sequence = 0;
+    
+    /**
+     * Schedule a mission. Its first update is offset inside the type's interval so that
+     * missions started together do not keep updating on the same tick.
+     */
+    public static ScheduledMission schedule(MissionType type, MissionTask task) {
+        return schedule(type, task, null);
+    }
+    
+    /**
+     * Schedule a mission with a cleanup hook. If an update throws, the mission is dropped and
+     * {@code onFailure} runs so the owning manager can release whatever the mission held.
+     */
+    public static ScheduledMission schedule(MissionType type, MissionTask task, Consumer<MinecraftServer> onFailure) {
+        int interval = type.getUpdateInterval();
+        ScheduledMission mission = new ScheduledMission(type, task, onFailure, sequence++);
+        mission.nextRunTick = currentTick + 1 + (mission.sequence % interval);
+        queue.add(mission);
+        return mission;
+    }
+    
+    /**
+     * Create a timer group for a new mission. Cancel it when the mission ends.
+     */
+    public static TickTimerWheel.TimerGroup newTimerGroup() {
+        return new TickTimerWheel.TimerGroup(timers);
+    }
+    
+    /**
+     * Shared server-thread timer wheel
+     */
+    public static TickTimerWheel getTimers() {
+        return timers;
+    }
+    
+    /**
+     * Current server tick as seen by the scheduler
+     */
+    public static long getCurrentTick() {
+        return currentTick;
+    }
+    
+    /**
+     * Number of missions currently scheduled
+     */
+    public static int getScheduledCount() {
+        return queue.size();
+    }
+    
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END) return;
+        
+        MinecraftServer server = event.getServer();
+        currentTick = server.getTickCount();
+        long tickStart = PerfMetric.SCHEDULER_TICK.begin();
+        
+        // Delayed actions first, so missions see their effects in the same tick
+        timers.advanceTo(currentTick);
+        
+        long budgetNanos = RaidConfig.MISSION_TICK_BUDGET_MICROS.get() * 1000L;
+        long start = System.nanoTime();
+        int updated = 0;
+        
+        while (!queue.isEmpty() && queue.peek().nextRunTick <= currentTick) {
+            // Always make progress on at least one mission, then respect the budget
+            if (updated > 0 && System.nanoTime() - start >= budgetNanos) {
+                PerfCounter.BUDGET_EXHAUSTED.increment();
+                break;
+            }
+            
+            ScheduledMission mission = queue.poll();
+            if (mission.cancelled) continue;
+            
+            boolean finished;
+            long updateStart = mission.type.getMetric().begin();
+            try {
+                finished = mission.task.update(server);
+            } catch (Exception e) {
+                ModMain.LOGGER.error("Mission update failed for {} mission, dropping it", mission.type, e);
+                mission.fail(server);
+                finished = true;
+            }
+            mission.type.getMetric().end(updateStart);
+            updated++;
+            
+            if (finished || mission.cancelled) {
+                mission.cancelled = true;
+                continue;
+            }
+            mission.nextRunTick = currentTick + mission.type.getUpdateInterval();
+            queue.add(mission);
+        }
+        
+        PerfMetric.SCHEDULER_TICK.end(tickStart);
+    }
+    
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        queue.clear();
+        timers.clear();
+        currentTick = 0;
+    }
+    
+    /**
+     * Handle to a scheduled mission
+     */
+    public static class ScheduledMission {
+        private final MissionType type;
+        private final MissionTask task;
+        private final Consumer<MinecraftServer> onFailure;
+        private final long sequence;
+        private long nextRunTick;
+        private boolean cancelled;
+        
+        private ScheduledMission(MissionType type, MissionTask task, Consumer<MinecraftServer> onFailure, long sequence) {
+            this.type = type;
+            this.task = task;
+            this.onFailure = onFailure;
+            this.sequence = sequence;
+        }
+        
+        private void fail(MinecraftServer server) {
+            if (onFailure == null) return;
+            try {
+                onFailure.accept(server);
+            } catch (Exception e) {
+                ModMain.LOGGER.error("Cleanup of failed {} mission failed too", type, e);
+            }
+        }
+        
+        public MissionType getType() {
+            return type;
+        }
+        
+        /**
+         * Stop updating this mission. Takes effect before its next update.
+         */
+        public void cancel() {
+            this.cancelled = true;
+        }
+        
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.mchivellian.recruitsaddon.mission;
+
+import net.minecraft.server.MinecraftServer;
+
+/**
+ * One update step of a scheduled mission. Always called on the server thread.
+ */
+@FunctionalInterface
+public interface MissionTask {
+    
+    /**
+     * Run one update of the mission
+     * @return true when the mission is finished and should be dropped from the scheduler
+     */
+    boolean update(MinecraftServer server);
+}
@@ -0,0 +1,49 @@
+package com.mchivellian.recruitsaddon.mission;
+
+import com.mchivellian.recruitsaddon.config.RaidConfig;
+import com.mchivellian.recruitsaddon.perf.PerfMetric;
+import net.minecraftforge.common.ForgeConfigSpec;
+
+import java.util.function.IntSupplier;
+
+/**
+ * Kinds of long-running missions driven by the {@link MissionScheduler}.
+ * Each mission type reads its own update rate from config; housekeeping tasks that share
+ * the scheduler's budget run at a fixed rate.
+ */
+public enum MissionType {
+    MARCH(RaidConfig.MARCH_UPDATE_INTERVAL, PerfMetric.MARCH_UPDATE),
+    RAID(RaidConfig.RAID_UPDATE_INTERVAL, PerfMetric.RAID_UPDATE),
+    ADVANCED_RAID(RaidConfig.ADVANCED_RAID_UPDATE_INTERVAL, PerfMetric.ADVANCED_RAID_UPDATE),
+    FLOW_FIELD_SWEEP(200, PerfMetric.FLOW_FIELD_SWEEP),
+    OWNERSHIP_SYNC(20, PerfMetric.OWNERSHIP_SYNC),
+    SURFACE_SWEEP(600, PerfMetric.SURFACE_SWEEP),
+    PERF_MONITOR(20, PerfMetric.PERF_MONITOR);
+    
+    private final IntSupplier updateInterval;
+    private final PerfMetric metric;
+    
+    MissionType(ForgeConfigSpec.IntValue updateInterval, PerfMetric metric) {
+        this.updateInterval = updateInterval::get;
+        this.metric = metric;
+    }
+    
+    MissionType(int updateInterval, PerfMetric metric) {
+        this.updateInterval = () -> updateInterval;
+        this.metric = metric;
+    }
+    
+    /**
+     * Timer that records the cost of each update of this mission type
+     */
+    public PerfMetric getMetric() {
+        return metric;
+    }
+    
+    /**
+     * Ticks between two updates of a mission of this type
+     */
+    public int getUpdateInterval() {
+        return Math.max(1, updateInterval.getAsInt());
+    }
+}
@@ -0,0 +1,90 @@
+package com.mchivellian.recruitsaddon.mission;
+
+import com.mchivellian.recruitsaddon.ModMain;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-player chat notification cooldowns.
+ * Each online player gets one small array of last-sent ticks, indexed by notification type;
+ * it is dropped when the player logs out. Callers pass the resolved player, so offline
+ * commanders never get an entry that no logout would clear.
+ */
+@Mod.EventBusSubscriber(modid = ModMain.MODID)
+public final class NotificationLimiter {
+    
+    /**
+     * Rate-limited notification kinds and their cooldown in ticks
+     */
+    public enum Type {
+        COMBAT(1200),       // 60 seconds
+        STUCK(1200),
+        MARCH_RESUME(1200),
+        UNDER_ATTACK(100);  // 5 seconds
+        
+        private final int cooldownTicks;
+        
+        Type(int cooldownTicks) {
+            this.cooldownTicks = cooldownTicks;
+        }
+        
+        public int getCooldownTicks() {
+            return cooldownTicks;
+        }
+    }
+    
+    private static final Type[] TYPES = Type.values();
+    private static final long NEVER = Long.MIN_VALUE / 2;
+    private static final Map<UUID, long[]> lastSent = new ConcurrentHashMap<>();
+    
+    private NotificationLimiter() {}
+    
+    /**
+     * Whether this notification may be sent now; if so its cooldown starts
+     * @param player the recipient, or null when offline (never acquires)
+     */
+    public static boolean tryAcquire(ServerPlayer player, Type type) {
+        if (player == null || player.hasDisconnected()) {
+            return false;
+        }
+        long now = MissionScheduler.getCurrentTick();
+        long[] times = lastSent.get(player.getUUID());
+        if (times == null) {
+            times = new long[TYPES.length];
+            Arrays.fill(times, NEVER);
+            lastSent.put(player.getUUID(), times);
+        }
+        
+        int index = type.ordinal();
+        if (now - times[index] < type.cooldownTicks) {
+            return false;
+        }
+        times[index] = now;
+        return true;
+    }
+    
+    /**
+     * Number of players currently holding cooldown state
+     */
+    public static int size() {
+        return lastSent.size();
+    }
+    
+    @SubscribeEvent
+    public static void onPlayerLoggedOut(PlayerEvent.PlayerLoggedOutEvent event) {
+        lastSent.remove(event.getEntity().getUUID());
+    }
+    
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        lastSent.clear();
+    }
+}
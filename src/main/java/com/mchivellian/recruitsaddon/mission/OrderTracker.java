@@ -0,0 +1,87 @@
+package com.mchivellian.recruitsaddon.mission;
+
+import com.mchivellian.recruitsaddon.perf.PerfCounter;
+import com.talhanation.recruits.entities.AbstractRecruitEntity;
+import net.minecraft.core.BlockPos;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Remembers the last movement order a mission sent to each recruit, so the order is only
+ * re-sent when the target changes, the recruit dropped it, or the recruit stalled.
+ * Re-sending an unchanged order restarts the recruit's pathfinding for nothing.
+ * Mission-owned and used on the server thread only.
+ */
+public class OrderTracker {
+    
+    private static final int STALL_CHECK_TICKS = 100; // 5 seconds
+    private static final double STALL_DISTANCE_SQ = 1.0; // Less than a block of progress counts as stalled
+    
+    private final Map<UUID, Order> orders = new HashMap<>();
+    
+    /**
+     * Whether the recruit should be sent the order for this target now
+     */
+    public boolean needsOrder(AbstractRecruitEntity recruit, BlockPos target, long currentTick) {
+        Order order = orders.get(recruit.getUUID());
+        if (order == null || !order.target.equals(target)) {
+            return true;
+        }
+        
+        // Something else (combat, another command) took over the recruit's movement
+        if (!recruit.getShouldMovePos()) {
+            return true;
+        }
+        
+        if (currentTick - order.checkTick < STALL_CHECK_TICKS) {
+            PerfCounter.ORDERS_SKIPPED.increment();
+            return false;
+        }
+        
+        double dx = recruit.getX() - order.checkX;
+        double dz = recruit.getZ() - order.checkZ;
+        if (dx * dx + dz * dz < STALL_DISTANCE_SQ) {
+            return true; // Stalled: re-issuing the order forces a fresh path
+        }
+        order.checkpoint(recruit, currentTick);
+        PerfCounter.ORDERS_SKIPPED.increment();
+        return false;
+    }
+    
+    /**
+     * Record that an order for this target was just sent
+     */
+    public void recordOrder(AbstractRecruitEntity recruit, BlockPos target, long currentTick) {
+        PerfCounter.ORDERS_SENT.increment();
+        Order order = new Order(target);
+        order.checkpoint(recruit, currentTick);
+        orders.put(recruit.getUUID(), order);
+    }
+    
+    public void forget(UUID recruitId) {
+        orders.remove(recruitId);
+    }
+    
+    public void clear() {
+        orders.clear();
+    }
+    
+    private static final class Order {
+        final BlockPos target;
+        long checkTick;
+        double checkX;
+        double checkZ;
+        
+        Order(BlockPos target) {
+            this.target = target;
+        }
+        
+        void checkpoint(AbstractRecruitEntity recruit, long tick) {
+            this.checkTick = tick;
+            this.checkX = recruit.getX();
+            this.checkZ = recruit.getZ();
+        }
+    }
+}
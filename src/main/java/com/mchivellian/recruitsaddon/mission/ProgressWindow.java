@@ -0,0 +1,92 @@
+package com.mchivellian.recruitsaddon.mission;
+
+/**
+ * Sliding window of (tick, position, distance-to-goal) samples for {@link StallDetector}.
+ * Samples are kept by tick rather than by count: everything newer than the window plus the
+ * newest sample at least a window old, so the window spans the same time however often the
+ * owning mission updates. The buffer grows to fit, at most {@code windowTicks / interval + 2}
+ * samples. Server thread only.
+ */
+final class ProgressWindow {
+
+    private final int windowTicks;
+    private long[] ticks = new long[8];
+    private double[] xs = new double[8];
+    private double[] zs = new double[8];
+    private double[] distances = new double[8];
+    private int oldest;
+    private int count;
+
+    ProgressWindow(int windowTicks) {
+        this.windowTicks = windowTicks;
+    }
+
+    void record(long tick, double x, double z, double distance) {
+        if (count == ticks.length) {
+            grow();
+        }
+        int index = (oldest + count) % ticks.length;
+        ticks[index] = tick;
+        xs[index] = x;
+        zs[index] = z;
+        distances[index] = distance;
+        count++;
+
+        // Drop the oldest sample while the next one is also at least a window old
+        while (count >= 2 && tick - ticks[(oldest + 1) % ticks.length] >= windowTicks) {
+            oldest = (oldest + 1) % ticks.length;
+            count--;
+        }
+    }
+
+    /**
+     * Whether the samples span at least one full window
+     */
+    boolean hasFullWindow(long now) {
+        return count >= 2 && now - ticks[oldest] >= windowTicks;
+    }
+
+    /**
+     * Whether, over the last window, the distance to the goal shrank by less than
+     * {@code minProgress} and the position moved less than {@code sqrt(minDisplacementSq)}
+     */
+    boolean isStalled(long now, double minProgress, double minDisplacementSq) {
+        if (!hasFullWindow(now)) return false;
+
+        int latest = (oldest + count - 1) % ticks.length;
+        double progress = distances[oldest] - distances[latest];
+        double dx = xs[oldest] - xs[latest];
+        double dz = zs[oldest] - zs[latest];
+        return progress < minProgress && dx * dx + dz * dz < minDisplacementSq;
+    }
+
+    void clear() {
+        oldest = 0;
+        count = 0;
+    }
+
+    private void grow() {
+        int length = ticks.length;
+        ticks = unwrap(ticks, length * 2);
+        xs = unwrap(xs, length * 2);
+        zs = unwrap(zs, length * 2);
+        distances = unwrap(distances, length * 2);
+        oldest = 0;
+    }
+
+    private long[] unwrap(long[] ring, int size) {
+        long[] grown = new long[size];
+        for (int i = 0; i < count; i++) {
+            grown[i] = ring[(oldest + i) % ring.length];
+        }
+        return grown;
+    }
+
+    private double[] unwrap(double[] ring, int size) {
+        double[] grown = new double[size];
+        for (int i = 0; i < count; i++) {
+            grown[i] = ring[(oldest + i) % ring.length];
+        }
+        return grown;
+    }
+}
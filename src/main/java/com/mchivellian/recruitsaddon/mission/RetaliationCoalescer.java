@@ -0,0 +1,69 @@
+package com.mchivellian.recruitsaddon.mission;
+
+import net.minecraft.world.entity.LivingEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Collects the attackers of a squad over a short window and hands them over in one batch.
+ * A volley of arrows fires a hurt event per hit; instead of re-targeting the whole squad on
+ * every one of them, the mission makes a single targeting decision per window.
+ * Mission-owned and used on the server thread only.
+ */
+public class RetaliationCoalescer {
+    
+    public static final int WINDOW_TICKS = 10; // 0.5 seconds
+    
+    private final TickTimerWheel.TimerGroup timers;
+    private final Consumer<List<LivingEntity>> onFlush;
+    private final List<LivingEntity> attackers = new ArrayList<>();
+    private TickTimerWheel.TimerHandle pending;
+    
+    /**
+     * @param timers the mission's timer group, so a pending flush dies with the mission
+     * @param onFlush receives the distinct, still-alive attackers of the window
+     */
+    public RetaliationCoalescer(TickTimerWheel.TimerGroup timers, Consumer<List<LivingEntity>> onFlush) {
+        this.timers = timers;
+        this.onFlush = onFlush;
+    }
+    
+    /**
+     * Record an attacker. The first report of a window arms the flush.
+     */
+    public void report(LivingEntity attacker) {
+        if (!attackers.contains(attacker)) {
+            attackers.add(attacker);
+        }
+        if (pending == null || !pending.isPending()) {
+            pending = timers.schedule(WINDOW_TICKS, this::flush);
+        }
+    }
+    
+    private void flush() {
+        pending = null;
+        List<LivingEntity> batch = new ArrayList<>(attackers.size());
+        for (LivingEntity attacker : attackers) {
+            if (attacker.isAlive()) {
+                batch.add(attacker);
+            }
+        }
+        attackers.clear();
+        if (!batch.isEmpty()) {
+            onFlush.accept(batch);
+        }
+    }
+    
+    /**
+     * Drop collected attackers and any pending flush
+     */
+    public void clear() {
+        if (pending != null) {
+            pending.cancel();
+            pending = null;
+        }
+        attackers.clear();
+    }
+}
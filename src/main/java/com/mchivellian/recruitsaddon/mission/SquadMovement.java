@@ -0,0 +1,59 @@
+package com.mchivellian.recruitsaddon.mission;
+
+import com.mchivellian.recruitsaddon.ModMain;
+import com.mchivellian.recruitsaddon.config.RaidConfig;
+import com.mchivellian.recruitsaddon.integration.SurfaceCache;
+import com.talhanation.recruits.entities.AbstractRecruitEntity;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Movement helpers shared by every mission type, driven by a {@link SquadState} snapshot
+ */
+public final class SquadMovement {
+    
+    private SquadMovement() {}
+    
+    /**
+     * Teleports recruits who have fallen too far behind the squad's main body during a movement phase.
+     * @param squad snapshot updated from {@code recruits} this cycle (same order)
+     * @param reissueOrder re-sends the mission's movement order to a teleported recruit
+     */
+    public static void teleportLaggingRecruits(SquadState squad, List<? extends AbstractRecruitEntity> recruits, BlockPos targetPos,
+                                               ServerLevel level, String operationType, Consumer<AbstractRecruitEntity> reissueOrder) {
+        if (!RaidConfig.ENABLE_TELEPORTATION.get() || squad.size() <= 1) return; // Need at least 2 recruits to determine who's lagging
+        
+        // Avoid teleporting while the squad is still close to the target (e.g. right at the start of a short move)
+        int progressDistance = RaidConfig.TELEPORTATION_PROGRESS_THRESHOLD.get();
+        if (squad.centroidDistanceSqXZ(targetPos.getX(), targetPos.getZ()) <= (double) progressDistance * progressDistance) {
+            return;
+        }
+        
+        int lagDistance = RaidConfig.TELEPORTATION_DISTANCE_THRESHOLD.get();
+        int[] laggards = new int[squad.size()];
+        int count = squad.findLaggards((double) lagDistance * lagDistance, laggards);
+        if (count == 0) return;
+        
+        // Find a safe position near the main body once for all laggards
+        BlockPos teleportPos = SurfaceCache.getPositionOrSurface(
+            level, BlockPos.containing(squad.getBodyX(), squad.getBodyY(), squad.getBodyZ()));
+        
+        for (int i = 0; i < count; i++) {
+            AbstractRecruitEntity recruit = recruits.get(laggards[i]);
+            if (!recruit.isAlive()) continue;
+            
+            recruit.teleportTo(teleportPos.getX() + 0.5, teleportPos.getY(), teleportPos.getZ() + 0.5);
+            recruit.clearMovePos();
+            recruit.setShouldMovePos(false);
+            
+            // Reset their target to continue the mission
+            reissueOrder.accept(recruit);
+            
+            ModMain.LOGGER.info("Teleported lagging {} recruit {} to group position ({}, {}, {})", 
+                operationType, recruit.getUUID(), teleportPos.getX(), teleportPos.getY(), teleportPos.getZ());
+        }
+    }
+}
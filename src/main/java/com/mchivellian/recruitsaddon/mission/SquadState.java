@@ -0,0 +1,297 @@
+package com.mchivellian.recruitsaddon.mission;
+
+import net.minecraft.world.entity.Entity;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Per-mission snapshot of squad member positions, kept in primitive arrays and reused
+ * between updates. One {@link #update} pass fills the positions, the centroid, the
+ * distance-to-target of every member and a small uniform grid; centroid, laggard and
+ * arrival queries are then answered from the arrays without touching entities again.
+ *
+ * The grid (8-block XZ cells) locates the squad's main body: the densest 3x3 block of
+ * cells. Laggards are measured against that body rather than the plain centroid, which
+ * the laggards themselves would drag towards them.
+ */
+public class SquadState {
+    
+    private static final int CELL_SHIFT = 3; // 8-block cells
+    private static final long EMPTY_CELL = Long.MIN_VALUE;
+    
+    private double[] xs = new double[0];
+    private double[] ys = new double[0];
+    private double[] zs = new double[0];
+    private double[] targetDistSq = new double[0];
+    private int[] memberCell = new int[0];
+    private int size;
+    
+    private long[] cellKeys = new long[0];
+    private int[] cellCounts = new int[0];
+    
+    private double centroidX, centroidY, centroidZ;
+    private double bodyX, bodyY, bodyZ;
+    private double arrivalRadiusSq;
+    private int arrivedCount;
+    
+    /**
+     * Refresh the snapshot from the given (already resolved, living) members
+     */
+    public void update(List<? extends Entity> members, double targetX, double targetY, double targetZ, double arrivalRadius) {
+        int count = members.size();
+        ensureCapacity(count);
+        for (int i = 0; i < count; i++) {
+            Entity member = members.get(i);
+            xs[i] = member.getX();
+            ys[i] = member.getY();
+            zs[i] = member.getZ();
+        }
+        recompute(count, targetX, targetY, targetZ, arrivalRadius);
+    }
+    
+    /**
+     * Refresh the snapshot from raw positions (benchmarks, or callers that already hold coordinates)
+     */
+    public void update(double[] x, double[] y, double[] z, int count, double targetX, double targetY, double targetZ, double arrivalRadius) {
+        ensureCapacity(count);
+        System.arraycopy(x, 0, xs, 0, count);
+        System.arraycopy(y, 0, ys, 0, count);
+        System.arraycopy(z, 0, zs, 0, count);
+        recompute(count, targetX, targetY, targetZ, arrivalRadius);
+    }
+    
+    private void recompute(int count, double targetX, double targetY, double targetZ, double arrivalRadius) {
+        size = count;
+        arrivalRadiusSq = arrivalRadius * arrivalRadius;
+        
+        double sumX = 0, sumY = 0, sumZ = 0;
+        int arrived = 0;
+        for (int i = 0; i < count; i++) {
+            double x = xs[i];
+            double y = ys[i];
+            double z = zs[i];
+            sumX += x;
+            sumY += y;
+            sumZ += z;
+            
+            double dx = x - targetX;
+            double dy = y - targetY;
+            double dz = z - targetZ;
+            double distSq = dx * dx + dy * dy + dz * dz;
+            targetDistSq[i] = distSq;
+            if (distSq <= arrivalRadiusSq) {
+                arrived++;
+            }
+            
+            memberCell[i] = addToCell(cellKey(x, z));
+        }
+        arrivedCount = arrived;
+        
+        if (count == 0) {
+            centroidX = centroidY = centroidZ = 0;
+            bodyX = bodyY = bodyZ = 0;
+            return;
+        }
+        centroidX = sumX / count;
+        centroidY = sumY / count;
+        centroidZ = sumZ / count;
+        locateMainBody();
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public double getCentroidX() {
+        return centroidX;
+    }
+    
+    public double getCentroidY() {
+        return centroidY;
+    }
+    
+    public double getCentroidZ() {
+        return centroidZ;
+    }
+    
+    /**
+     * Centre of the squad's main body (densest 3x3 grid block)
+     */
+    public double getBodyX() {
+        return bodyX;
+    }
+    
+    public double getBodyY() {
+        return bodyY;
+    }
+    
+    public double getBodyZ() {
+        return bodyZ;
+    }
+    
+    public double getX(int index) {
+        return xs[index];
+    }
+    
+    public double getY(int index) {
+        return ys[index];
+    }
+    
+    public double getZ(int index) {
+        return zs[index];
+    }
+    
+    /**
+     * Whether the member at this index was within the arrival radius of the target
+     */
+    public boolean hasArrived(int index) {
+        return targetDistSq[index] <= arrivalRadiusSq;
+    }
+    
+    public double getTargetDistanceSq(int index) {
+        return targetDistSq[index];
+    }
+    
+    public int getArrivedCount() {
+        return arrivedCount;
+    }
+    
+    /**
+     * True when every member was within the arrival radius of the target
+     */
+    public boolean allArrived() {
+        return size > 0 && arrivedCount == size;
+    }
+    
+    /**
+     * Squared horizontal distance from the centroid to a point
+     */
+    public double centroidDistanceSqXZ(double x, double z) {
+        double dx = centroidX - x;
+        double dz = centroidZ - z;
+        return dx * dx + dz * dz;
+    }
+    
+    /**
+     * Collect indices of members further than the threshold from the squad's main body
+     * @param thresholdSq squared distance threshold
+     * @param out buffer of at least {@link #size()} entries
+     * @return number of laggard indices written to {@code out}
+     */
+    public int findLaggards(double thresholdSq, int[] out) {
+        int found = 0;
+        for (int i = 0; i < size; i++) {
+            double dx = xs[i] - bodyX;
+            double dy = ys[i] - bodyY;
+            double dz = zs[i] - bodyZ;
+            if (dx * dx + dy * dy + dz * dz > thresholdSq) {
+                out[found++] = i;
+            }
+        }
+        return found;
+    }
+    
+    private void locateMainBody() {
+        int bestCell = -1;
+        int bestCount = -1;
+        for (int slot = 0; slot < cellKeys.length; slot++) {
+            long key = cellKeys[slot];
+            if (key == EMPTY_CELL) continue;
+            
+            int neighbourhood = 0;
+            int cx = cellX(key);
+            int cz = cellZ(key);
+            for (int ox = -1; ox <= 1; ox++) {
+                for (int oz = -1; oz <= 1; oz++) {
+                    neighbourhood += countAt(packCell(cx + ox, cz + oz));
+                }
+            }
+            if (neighbourhood > bestCount) {
+                bestCount = neighbourhood;
+                bestCell = slot;
+            }
+        }
+        
+        int bestX = cellX(cellKeys[bestCell]);
+        int bestZ = cellZ(cellKeys[bestCell]);
+        double sumX = 0, sumY = 0, sumZ = 0;
+        int members = 0;
+        for (int i = 0; i < size; i++) {
+            long key = cellKeys[memberCell[i]];
+            if (Math.abs(cellX(key) - bestX) <= 1 && Math.abs(cellZ(key) - bestZ) <= 1) {
+                sumX += xs[i];
+                sumY += ys[i];
+                sumZ += zs[i];
+                members++;
+            }
+        }
+        bodyX = sumX / members;
+        bodyY = sumY / members;
+        bodyZ = sumZ / members;
+    }
+    
+    private void ensureCapacity(int count) {
+        if (xs.length < count) {
+            int capacity = Math.max(8, Integer.highestOneBit(Math.max(1, count - 1)) << 1);
+            xs = new double[capacity];
+            ys = new double[capacity];
+            zs = new double[capacity];
+            targetDistSq = new double[capacity];
+            memberCell = new int[capacity];
+        }
+        
+        // Open-addressing cell table at <= 50% load
+        int tableSize = Math.max(16, Integer.highestOneBit(Math.max(1, count)) << 2);
+        if (cellKeys.length != tableSize) {
+            cellKeys = new long[tableSize];
+            cellCounts = new int[tableSize];
+        }
+        Arrays.fill(cellKeys, EMPTY_CELL);
+        Arrays.fill(cellCounts, 0);
+    }
+    
+    private int addToCell(long key) {
+        int mask = cellKeys.length - 1;
+        int slot = mix(key) & mask;
+        while (cellKeys[slot] != EMPTY_CELL && cellKeys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        cellKeys[slot] = key;
+        cellCounts[slot]++;
+        return slot;
+    }
+    
+    private int countAt(long key) {
+        int mask = cellKeys.length - 1;
+        int slot = mix(key) & mask;
+        while (cellKeys[slot] != EMPTY_CELL) {
+            if (cellKeys[slot] == key) {
+                return cellCounts[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+    
+    private static long cellKey(double x, double z) {
+        return packCell((int) Math.floor(x) >> CELL_SHIFT, (int) Math.floor(z) >> CELL_SHIFT);
+    }
+    
+    private static long packCell(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+    }
+    
+    private static int cellX(long key) {
+        return (int) (key >> 32);
+    }
+    
+    private static int cellZ(long key) {
+        return (int) key;
+    }
+    
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
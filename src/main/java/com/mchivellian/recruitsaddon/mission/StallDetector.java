@@ -0,0 +1,235 @@
+package com.mchivellian.recruitsaddon.mission;
+
+import com.mchivellian.recruitsaddon.ModMain;
+import com.mchivellian.recruitsaddon.config.RaidConfig;
+import com.mchivellian.recruitsaddon.integration.SurfaceCache;
+import com.mchivellian.recruitsaddon.perf.PerfCounter;
+import com.talhanation.recruits.entities.AbstractRecruitEntity;
+import net.minecraft.core.BlockPos;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Stall detection from progress towards the goal over a sliding window, for each member and
+ * for the squad's main body. Samples are kept by tick (see {@link ProgressWindow}), so the
+ * window is the same whatever the mission's update interval. A track is stalled when, over the last {@link #WINDOW_TICKS},
+ * it neither got {@link #MIN_PROGRESS} blocks closer to the goal nor moved
+ * 3 blocks at all (a detour still moves). Stalls get escalating remedies:
+ * <ol>
+ *   <li>re-path: the recruit's current order (slot, waypoint or destination) is sent again for a fresh path</li>
+ *   <li>alternate slot: a short detour to one side of the direct line, then the order again</li>
+ *   <li>short teleport: a few blocks forward onto the surface (only with teleportation enabled)</li>
+ * </ol>
+ * When the whole body stalls, every moving member gets the squad's remedy at once; this is the
+ * case {@link SquadMovement#teleportLaggingRecruits} cannot see, since nobody lags the body.
+ * Mission-owned and used on the server thread only.
+ */
+public class StallDetector {
+
+    /**
+     * Remedies in escalation order
+     */
+    public enum Remedy {
+        NONE,
+        REPATH,
+        ALTERNATE_SLOT,
+        TELEPORT
+    }
+
+    private static final int WINDOW_TICKS = 100; // 5 seconds
+    private static final double MIN_PROGRESS = 2.0;
+    private static final double MIN_DISPLACEMENT_SQ = 3.0 * 3.0;
+    private static final double DETOUR_AHEAD = 6.0;
+    private static final double DETOUR_SIDE = 4.0;
+    private static final double DETOUR_REACHED_SQ = 2.0 * 2.0;
+    private static final double TELEPORT_DISTANCE = 4.0;
+
+    private final Map<UUID, Track> members = new HashMap<>();
+    private final Track body = new Track();
+
+    /**
+     * Record this update's progress and apply remedies to stalled members
+     * @param recruits living members, in the same order as {@code squad}
+     * @param repath sends the recruit's current movement order again, through whatever steering the mission uses
+     * @return the remedy applied to the squad as a whole, or {@link Remedy#NONE}
+     */
+    public Remedy update(List<? extends AbstractRecruitEntity> recruits, SquadState squad, BlockPos goal, long now,
+                         Consumer<AbstractRecruitEntity> repath) {
+        if (!RaidConfig.ENABLE_STALL_DETECTION.get() || squad.size() == 0 || squad.allArrived()) {
+            return Remedy.NONE;
+        }
+
+        double goalX = goal.getX() + 0.5;
+        double goalZ = goal.getZ() + 0.5;
+        prune(recruits);
+
+        body.record(now, squad.getBodyX(), squad.getBodyZ(), Math.sqrt(distanceSq(squad.getBodyX(), squad.getBodyZ(), goalX, goalZ)));
+        Remedy squadRemedy = Remedy.NONE;
+        if (body.isStalled(now)) {
+            squadRemedy = body.escalate();
+            body.clear();
+        } else if (body.hasFullWindow(now)) {
+            body.level = Remedy.NONE;
+        }
+
+        for (int i = 0; i < recruits.size(); i++) {
+            AbstractRecruitEntity recruit = recruits.get(i);
+            Track track = members.computeIfAbsent(recruit.getUUID(), id -> new Track());
+
+            // Arrived, fighting or taken over by another command: nothing to measure
+            if (squad.hasArrived(i) || recruit.getTarget() != null || !recruit.getShouldMovePos()) {
+                track.clear();
+                track.level = Remedy.NONE;
+                continue;
+            }
+
+            if (track.detour != null) {
+                double dx = recruit.getX() - (track.detour.getX() + 0.5);
+                double dz = recruit.getZ() - (track.detour.getZ() + 0.5);
+                if (dx * dx + dz * dz <= DETOUR_REACHED_SQ || now - track.detourTick >= WINDOW_TICKS) {
+                    track.detour = null;
+                    repath.accept(recruit); // Around the obstacle: back on the mission's order
+                }
+                continue;
+            }
+
+            track.record(now, recruit.getX(), recruit.getZ(), Math.sqrt(squad.getTargetDistanceSq(i)));
+            Remedy remedy;
+            if (squadRemedy != Remedy.NONE) {
+                remedy = squadRemedy;
+            } else if (track.isStalled(now)) {
+                remedy = track.escalate();
+            } else {
+                if (track.hasFullWindow(now)) {
+                    track.level = Remedy.NONE; // Moving again
+                }
+                continue;
+            }
+
+            track.clear();
+            apply(remedy, recruit, track, goalX, goalZ, now, repath);
+        }
+
+        if (squadRemedy != Remedy.NONE) {
+            ModMain.LOGGER.debug("Squad stalled {} blocks from {}, applying {}",
+                (int) Math.sqrt(distanceSq(squad.getBodyX(), squad.getBodyZ(), goalX, goalZ)), goal, squadRemedy);
+        }
+        return squadRemedy;
+    }
+
+    /**
+     * Whether the recruit is on a detour around an obstacle; steering should leave it alone until it is back
+     */
+    public boolean isDetouring(AbstractRecruitEntity recruit) {
+        Track track = members.get(recruit.getUUID());
+        return track != null && track.detour != null;
+    }
+
+    public void clear() {
+        members.clear();
+        body.clear();
+        body.level = Remedy.NONE;
+    }
+
+    private void apply(Remedy remedy, AbstractRecruitEntity recruit, Track track, double goalX, double goalZ, long now,
+                       Consumer<AbstractRecruitEntity> repath) {
+        PerfCounter.STALL_REMEDIES.increment();
+
+        double dx = goalX - recruit.getX();
+        double dz = goalZ - recruit.getZ();
+        double length = Math.max(1.0e-3, Math.sqrt(dx * dx + dz * dz));
+        dx /= length;
+        dz /= length;
+
+        if (remedy == Remedy.TELEPORT && !RaidConfig.ENABLE_TELEPORTATION.get()) {
+            remedy = Remedy.ALTERNATE_SLOT; // Keep trying detours instead
+        }
+
+        switch (remedy) {
+            case REPATH -> {
+                recruit.getNavigation().stop();
+                repath.accept(recruit);
+            }
+            case ALTERNATE_SLOT -> {
+                // Alternate sides on each attempt so a recruit pinned in a corner tries both ways
+                double side = (track.detours++ & 1) == 0 ? DETOUR_SIDE : -DETOUR_SIDE;
+                BlockPos detour = SurfaceCache.getPositionOrSurface(recruit.level(), BlockPos.containing(
+                    recruit.getX() + dx * DETOUR_AHEAD - dz * side, recruit.getY(), recruit.getZ() + dz * DETOUR_AHEAD + dx * side));
+                recruit.getNavigation().stop();
+                recruit.setMovePos(detour);
+                recruit.setShouldMovePos(true);
+                track.detour = detour;
+                track.detourTick = now;
+            }
+            case TELEPORT -> {
+                BlockPos forward = SurfaceCache.getPositionOrSurface(recruit.level(), BlockPos.containing(
+                    recruit.getX() + dx * TELEPORT_DISTANCE, recruit.getY(), recruit.getZ() + dz * TELEPORT_DISTANCE));
+                recruit.teleportTo(forward.getX() + 0.5, forward.getY(), forward.getZ() + 0.5);
+                recruit.getNavigation().stop();
+                repath.accept(recruit);
+                ModMain.LOGGER.debug("Teleported stalled recruit {} to ({}, {}, {})",
+                    recruit.getUUID(), forward.getX(), forward.getY(), forward.getZ());
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Drop tracks of members that died or were unloaded
+     */
+    private void prune(List<? extends AbstractRecruitEntity> recruits) {
+        if (members.size() <= recruits.size()) return;
+
+        Set<UUID> alive = new HashSet<>();
+        for (AbstractRecruitEntity recruit : recruits) {
+            alive.add(recruit.getUUID());
+        }
+        members.keySet().retainAll(alive);
+    }
+
+    private static double distanceSq(double x1, double z1, double x2, double z2) {
+        double dx = x1 - x2;
+        double dz = z1 - z2;
+        return dx * dx + dz * dz;
+    }
+
+    /**
+     * Recent progress samples plus the escalation state
+     */
+    private static final class Track {
+        final ProgressWindow window = new ProgressWindow(WINDOW_TICKS);
+        Remedy level = Remedy.NONE;
+        BlockPos detour;
+        long detourTick;
+        int detours;
+
+        void record(long tick, double x, double z, double distance) {
+            window.record(tick, x, z, distance);
+        }
+
+        boolean hasFullWindow(long now) {
+            return window.hasFullWindow(now);
+        }
+
+        boolean isStalled(long now) {
+            return window.isStalled(now, MIN_PROGRESS, MIN_DISPLACEMENT_SQ);
+        }
+
+        Remedy escalate() {
+            Remedy[] remedies = Remedy.values();
+            level = remedies[Math.min(level.ordinal() + 1, remedies.length - 1)];
+            return level;
+        }
+
+        void clear() {
+            window.clear();
+        }
+    }
+}
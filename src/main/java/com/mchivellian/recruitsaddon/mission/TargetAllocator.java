@@ -0,0 +1,120 @@
+package com.mchivellian.recruitsaddon.mission;
+
+import com.mchivellian.recruitsaddon.perf.PerfCounter;
+import com.talhanation.recruits.entities.AbstractRecruitEntity;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.Mob;
+import net.minecraft.world.entity.player.Player;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Spreads a squad over the hostiles it is fighting.
+ * - A recruit keeps its target while that target is still a threat and not over-subscribed,
+ *   so its navigation is not reset every update
+ * - Free recruits take the cheapest target with room left: close, hurt and already
+ *   attacking the squad / commander is cheapest
+ * - At most {@code maxPerTarget} recruits are assigned to one hostile (at least an even share)
+ * - {@code setTarget} is only called when a recruit's target actually changes
+ * Mission-owned and used on the server thread only.
+ */
+public class TargetAllocator {
+    
+    private static final double THREAT_BONUS = 8.0; // Blocks of distance a hostile already in the fight is worth
+    private static final double HEALTH_WEIGHT = 0.5; // Full-health targets cost up to 50% more than nearly dead ones
+    
+    private final Map<UUID, LivingEntity> assignments = new HashMap<>();
+    private final Map<LivingEntity, int[]> load = new IdentityHashMap<>();
+    
+    /**
+     * Assign targets for this update
+     * @return number of recruits whose target changed
+     */
+    public int allocate(List<? extends AbstractRecruitEntity> recruits, List<LivingEntity> hostiles, int maxPerTarget) {
+        if (hostiles.isEmpty()) {
+            assignments.clear();
+            return 0;
+        }
+        
+        int cap = Math.max(1, Math.min(maxPerTarget, (recruits.size() + hostiles.size() - 1) / hostiles.size()));
+        for (LivingEntity hostile : hostiles) {
+            load.put(hostile, new int[1]);
+        }
+        
+        // Keep still-valid assignments first, up to the cap
+        boolean[] assigned = new boolean[recruits.size()];
+        for (int i = 0; i < recruits.size(); i++) {
+            AbstractRecruitEntity recruit = recruits.get(i);
+            LivingEntity current = assignments.get(recruit.getUUID());
+            int[] count = current != null && current.isAlive() ? load.get(current) : null;
+            if (count != null && count[0] < cap) {
+                count[0]++;
+                assigned[i] = true;
+            } else {
+                assignments.remove(recruit.getUUID());
+            }
+        }
+        
+        int changed = 0;
+        for (int i = 0; i < recruits.size(); i++) {
+            AbstractRecruitEntity recruit = recruits.get(i);
+            LivingEntity target = assigned[i] ? assignments.get(recruit.getUUID()) : pickTarget(recruit, hostiles, cap);
+            if (target == null) {
+                continue; // Every target is at its cap
+            }
+            if (!assigned[i]) {
+                load.get(target)[0]++;
+                assignments.put(recruit.getUUID(), target);
+            }
+            if (recruit.getTarget() != target) {
+                recruit.setTarget(target);
+                changed++;
+            }
+        }
+        
+        load.clear();
+        PerfCounter.TARGETS_CHANGED.add(changed);
+        return changed;
+    }
+    
+    private LivingEntity pickTarget(AbstractRecruitEntity recruit, List<LivingEntity> hostiles, int cap) {
+        LivingEntity best = null;
+        double bestCost = Double.MAX_VALUE;
+        for (LivingEntity hostile : hostiles) {
+            if (load.get(hostile)[0] >= cap || !hostile.isAlive()) {
+                continue;
+            }
+            double cost = Math.sqrt(recruit.distanceToSqr(hostile));
+            float health = hostile.getMaxHealth() > 0 ? hostile.getHealth() / hostile.getMaxHealth() : 1.0F;
+            cost *= 1.0 + HEALTH_WEIGHT * health;
+            if (isEngaged(hostile)) {
+                cost -= THREAT_BONUS;
+            }
+            if (cost < bestCost) {
+                bestCost = cost;
+                best = hostile;
+            }
+        }
+        return best;
+    }
+    
+    /**
+     * Whether the hostile is already fighting a recruit or a player
+     */
+    private static boolean isEngaged(LivingEntity hostile) {
+        LivingEntity target = hostile instanceof Mob mob ? mob.getTarget() : null;
+        return target instanceof AbstractRecruitEntity || target instanceof Player;
+    }
+    
+    /**
+     * Drop all assignments (end of a fight). Recruits keep whatever target they currently have.
+     */
+    public void clear() {
+        assignments.clear();
+        load.clear();
+    }
+}
@@ -0,0 +1,50 @@
+package com.mchivellian.recruitsaddon.mission;
+
+import com.mchivellian.recruitsaddon.perf.PerfMetric;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.AABB;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Per-mission hostile scan, shared by every recruit of the squad.
+ * The area is queried at most once per scheduler tick; repeated calls in the same tick
+ * return the cached result. Each entity appears once in the list.
+ */
+public class ThreatScan {
+    
+    private final List<LivingEntity> threats = new ArrayList<>();
+    private final List<LivingEntity> view = Collections.unmodifiableList(threats);
+    private long scannedTick = -1;
+    
+    /**
+     * Threats in the area that pass the filter, scanning only if this tick has no result yet
+     */
+    public List<LivingEntity> scan(Level level, AABB area, Predicate<LivingEntity> filter) {
+        long now = MissionScheduler.getCurrentTick();
+        if (scannedTick != now) {
+            long start = PerfMetric.THREAT_SCAN.begin();
+            threats.clear();
+            threats.addAll(level.getEntitiesOfClass(LivingEntity.class, area, filter));
+            scannedTick = now;
+            PerfMetric.THREAT_SCAN.end(start);
+        }
+        return view;
+    }
+    
+    /**
+     * Result of the latest scan (possibly from an earlier tick)
+     */
+    public List<LivingEntity> getThreats() {
+        return view;
+    }
+    
+    public void clear() {
+        threats.clear();
+        scannedTick = -1;
+    }
+}
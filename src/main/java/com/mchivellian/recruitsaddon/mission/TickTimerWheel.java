@@ -0,0 +1,249 @@
+package com.mchivellian.recruitsaddon.mission;
+
+import com.mchivellian.recruitsaddon.ModMain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timer wheel keyed by game tick, for delayed mission actions
+ * (resume march, phase timeouts, ...). Not thread-safe: it is scheduled and
+ * advanced on the server thread only, so actions may touch entities freely.
+ *
+ * Level 0 has 256 one-tick slots, level 1 has 64 slots of 256 ticks and level 2
+ * has 64 slots of 16384 ticks (~14.5 hours). Later deadlines wait in an overflow
+ * list. Timers cascade down one level when their coarse slot comes up, so
+ * scheduling and firing are O(1) amortised.
+ */
+public class TickTimerWheel {
+    
+    private static final int L0_BITS = 8;
+    private static final int L1_BITS = 6;
+    private static final int L2_BITS = 6;
+    private static final int L0_SIZE = 1 << L0_BITS;
+    private static final int L1_SIZE = 1 << L1_BITS;
+    private static final int L2_SIZE = 1 << L2_BITS;
+    private static final int L1_SHIFT = L0_BITS;
+    private static final int L2_SHIFT = L0_BITS + L1_BITS;
+    private static final long L1_SPAN = 1L << L2_SHIFT;
+    private static final long L2_SPAN = 1L << (L2_SHIFT + L2_BITS);
+    
+    private final List<List<TimerHandle>> level0 = createSlots(L0_SIZE);
+    private final List<List<TimerHandle>> level1 = createSlots(L1_SIZE);
+    private final List<List<TimerHandle>> level2 = createSlots(L2_SIZE);
+    private List<TimerHandle> overflow = new ArrayList<>();
+    private long currentTick;
+    private int pending;
+    
+    /**
+     * Run an action after the given number of ticks (at least one)
+     */
+    public TimerHandle schedule(int delayTicks, Runnable action) {
+        TimerHandle handle = new TimerHandle(currentTick + Math.max(1, delayTicks), action);
+        insert(handle);
+        pending++;
+        return handle;
+    }
+    
+    /**
+     * Advance the wheel up to (and including) the given tick, firing every due timer
+     */
+    public void advanceTo(long tick) {
+        if (tick - currentTick > L2_SPAN) {
+            // Large jump (e.g. first tick after start-up): fire everything due and re-base
+            rebase(tick);
+            return;
+        }
+        while (currentTick < tick) {
+            currentTick++;
+            
+            if ((currentTick & (L2_SPAN - 1)) == 0) {
+                List<TimerHandle> waiting = overflow;
+                overflow = new ArrayList<>();
+                cascade(waiting);
+            }
+            if ((currentTick & (L1_SPAN - 1)) == 0) {
+                cascadeSlot(level2, (int) ((currentTick >>> L2_SHIFT) & (L2_SIZE - 1)));
+            }
+            if ((currentTick & (L0_SIZE - 1)) == 0) {
+                cascadeSlot(level1, (int) ((currentTick >>> L1_SHIFT) & (L1_SIZE - 1)));
+            }
+            
+            List<TimerHandle> slot = level0.get((int) (currentTick & (L0_SIZE - 1)));
+            if (slot.isEmpty()) continue;
+            
+            List<TimerHandle> due = new ArrayList<>(slot);
+            slot.clear();
+            for (TimerHandle handle : due) {
+                fire(handle);
+            }
+        }
+    }
+    
+    public long getCurrentTick() {
+        return currentTick;
+    }
+    
+    /**
+     * Number of timers scheduled and not yet fired (cancelled ones included until their slot comes up)
+     */
+    public int getPendingCount() {
+        return pending;
+    }
+    
+    /**
+     * Drop every timer without running it
+     */
+    public void clear() {
+        for (List<TimerHandle> slot : level0) slot.clear();
+        for (List<TimerHandle> slot : level1) slot.clear();
+        for (List<TimerHandle> slot : level2) slot.clear();
+        overflow.clear();
+        pending = 0;
+        currentTick = 0;
+    }
+    
+    private void insert(TimerHandle handle) {
+        long delta = handle.deadline - currentTick;
+        if (delta < L0_SIZE) {
+            level0.get((int) (handle.deadline & (L0_SIZE - 1))).add(handle);
+        } else if (delta < L1_SPAN) {
+            level1.get((int) ((handle.deadline >>> L1_SHIFT) & (L1_SIZE - 1))).add(handle);
+        } else if (delta < L2_SPAN) {
+            level2.get((int) ((handle.deadline >>> L2_SHIFT) & (L2_SIZE - 1))).add(handle);
+        } else {
+            overflow.add(handle);
+        }
+    }
+    
+    private void cascadeSlot(List<List<TimerHandle>> level, int index) {
+        List<TimerHandle> slot = level.get(index);
+        if (slot.isEmpty()) return;
+        
+        List<TimerHandle> moved = new ArrayList<>(slot);
+        slot.clear();
+        cascade(moved);
+    }
+    
+    private void cascade(List<TimerHandle> handles) {
+        for (TimerHandle handle : handles) {
+            if (handle.cancelled) {
+                pending--;
+            } else if (handle.deadline <= currentTick) {
+                fire(handle);
+            } else {
+                insert(handle);
+            }
+        }
+    }
+    
+    private void rebase(long tick) {
+        List<TimerHandle> all = new ArrayList<>(overflow);
+        overflow = new ArrayList<>();
+        for (List<List<TimerHandle>> level : List.of(level0, level1, level2)) {
+            for (List<TimerHandle> slot : level) {
+                all.addAll(slot);
+                slot.clear();
+            }
+        }
+        currentTick = tick;
+        cascade(all);
+    }
+    
+    private void fire(TimerHandle handle) {
+        pending--;
+        if (handle.cancelled) return;
+        
+        handle.fired = true;
+        if (handle.group != null) {
+            handle.group.forget(handle);
+        }
+        try {
+            handle.action.run();
+        } catch (Exception e) {
+            ModMain.LOGGER.error("Scheduled mission action failed", e);
+        }
+    }
+    
+    private static List<List<TimerHandle>> createSlots(int size) {
+        List<List<TimerHandle>> slots = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            slots.add(new ArrayList<>());
+        }
+        return slots;
+    }
+    
+    /**
+     * Cancellation handle for one scheduled action
+     */
+    public static class TimerHandle {
+        private final long deadline;
+        private final Runnable action;
+        private TimerGroup group;
+        private boolean cancelled;
+        private boolean fired;
+        
+        private TimerHandle(long deadline, Runnable action) {
+            this.deadline = deadline;
+            this.action = action;
+        }
+        
+        /**
+         * Prevent the action from running. No effect once it has fired.
+         */
+        public void cancel() {
+            if (fired || cancelled) return;
+            cancelled = true;
+            if (group != null) {
+                group.forget(this);
+            }
+        }
+        
+        public boolean isPending() {
+            return !fired && !cancelled;
+        }
+        
+        public long getDeadline() {
+            return deadline;
+        }
+    }
+    
+    /**
+     * Set of timers owned by one mission, cancelled together when the mission ends
+     */
+    public static class TimerGroup {
+        private final TickTimerWheel wheel;
+        private final List<TimerHandle> handles = new ArrayList<>();
+        
+        public TimerGroup(TickTimerWheel wheel) {
+            this.wheel = wheel;
+        }
+        
+        public TimerHandle schedule(int delayTicks, Runnable action) {
+            TimerHandle handle = wheel.schedule(delayTicks, action);
+            handle.group = this;
+            handles.add(handle);
+            return handle;
+        }
+        
+        /**
+         * Cancel every pending timer of this mission
+         */
+        public void cancelAll() {
+            List<TimerHandle> toCancel = new ArrayList<>(handles);
+            handles.clear();
+            for (TimerHandle handle : toCancel) {
+                handle.group = null;
+                handle.cancel();
+            }
+        }
+        
+        public int size() {
+            return handles.size();
+        }
+        
+        private void forget(TimerHandle handle) {
+            handles.remove(handle);
+        }
+    }
+}
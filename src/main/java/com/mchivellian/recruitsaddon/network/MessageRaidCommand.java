@@ -1,5 +1,6 @@
 package com.mchivellian.recruitsaddon.network;
 
+import com.mchivellian.recruitsaddon.perf.PerfMetric;
 import com.mchivellian.recruitsaddon.raid.RaidManager;
 import net.minecraft.core.BlockPos;
 import net.minecraft.network.FriendlyByteBuf;
@@ -44,10 +45,12 @@ public class MessageRaidCommand {
     public static void handle(MessageRaidCommand message, Supplier<NetworkEvent.Context> contextSupplier) {
         NetworkEvent.Context context = contextSupplier.get();
         context.enqueueWork(() -> {
+            long start = PerfMetric.PACKET_HANDLER.begin();
             ServerPlayer player = context.getSender();
             if (player != null && player.getUUID().equals(message.playerUuid)) {
                 RaidManager.startRaid(player, message.targetPos, message.groupId, message.raidType);
             }
+            PerfMetric.PACKET_HANDLER.end(start);
         });
         context.setPacketHandled(true);
     }
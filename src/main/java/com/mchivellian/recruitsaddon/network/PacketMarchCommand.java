@@ -1,6 +1,7 @@
 package com.mchivellian.recruitsaddon.network;
 
 import com.mchivellian.recruitsaddon.integration.RecruitsIntegration;
+import com.mchivellian.recruitsaddon.perf.PerfMetric;
 import net.minecraft.core.BlockPos;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.server.level.ServerPlayer;
@@ -39,6 +40,7 @@ public class PacketMarchCommand {
             ServerPlayer player = ctx.get().getSender();
             if (player == null) return;
 
+            long start = PerfMetric.PACKET_HANDLER.begin();
             Level world = player.level();
             for (UUID uuid : this.recruitUuids) {
                 Entity recruit = ((net.minecraft.server.level.ServerLevel) world).getEntity(uuid);
@@ -49,6 +51,7 @@ public class PacketMarchCommand {
                     RecruitsIntegration.sendMarchCommand(recruit, groundPos);
                 }
             }
+            PerfMetric.PACKET_HANDLER.end(start);
         });
         ctx.get().setPacketHandled(true);
     }
@@ -1,6 +1,7 @@
 package com.mchivellian.recruitsaddon.network;
 
 import com.mchivellian.recruitsaddon.integration.RecruitsIntegration;
+import com.mchivellian.recruitsaddon.perf.PerfMetric;
 import com.talhanation.recruits.entities.AbstractRecruitEntity;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.server.level.ServerPlayer;
@@ -73,6 +74,7 @@ public class PacketRecruitMovement {
                 return;
             }
             
+            long start = PerfMetric.PACKET_HANDLER.begin();
             switch (packet.action) {
                 case MOVE_ALL -> {
                     List<AbstractRecruitEntity> recruits = RecruitsIntegration.getPlayerRecruits(player);
@@ -141,6 +143,7 @@ public class PacketRecruitMovement {
                         " | Idle: " + idle));
                 }
             }
+            PerfMetric.PACKET_HANDLER.end(start);
         });
         context.setPacketHandled(true);
     }
@@ -0,0 +1,241 @@
+package com.mchivellian.recruitsaddon.pathing;
+
+import com.mchivellian.recruitsaddon.perf.PerfMetric;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.chunk.LevelChunk;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Distance-to-destination field over the surface columns around one destination.
+ * One Dijkstra pass from the destination fills the distance of every reachable column; a
+ * recruit then only walks downhill through the field to find its next waypoint, so a whole
+ * squad shares one search instead of running one A* each.
+ *
+ * Columns are sampled from the heightmap of loaded chunks only; columns in unloaded chunks
+ * count as open ground until their chunk loads. Block changes mark their column dirty, and
+ * {@link #refresh} re-samples dirty columns and re-runs the search only when a column's
+ * height or cost actually changed. Server thread only.
+ */
+public class FlowField {
+
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+    private static final int BUCKETS = 4; // Must exceed the largest cost
+
+    private static final int[] STEP_X = {1, -1, 0, 0};
+    private static final int[] STEP_Z = {0, 0, 1, -1};
+    private static final int[] LOOK_X = {1, -1, 0, 0, 1, 1, -1, -1};
+    private static final int[] LOOK_Z = {0, 0, 1, -1, 1, -1, 1, -1};
+
+    private final BlockPos destination;
+    private final int radius;
+    private final int minX;
+    private final int minZ;
+    private final int size;
+    private final int[] heights;
+    private final byte[] costs;
+    private final int[] dist;
+    private final BitSet dirty = new BitSet();
+    private final int[][] buckets = new int[BUCKETS][];
+    private final int[] bucketSizes = new int[BUCKETS];
+    private long lastUsedTick;
+
+    public FlowField(BlockPos destination, int radius) {
+        this.destination = destination;
+        this.radius = radius;
+        this.minX = destination.getX() - radius;
+        this.minZ = destination.getZ() - radius;
+        this.size = radius * 2 + 1;
+        int cells = size * size;
+        this.heights = new int[cells];
+        this.costs = new byte[cells];
+        this.dist = new int[cells];
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new int[256];
+        }
+    }
+
+    public BlockPos getDestination() {
+        return destination;
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    public long getLastUsedTick() {
+        return lastUsedTick;
+    }
+
+    public void touch(long tick) {
+        this.lastUsedTick = tick;
+    }
+
+    public boolean contains(int x, int z) {
+        return x >= minX && z >= minZ && x < minX + size && z < minZ + size;
+    }
+
+    /**
+     * Whether any column of this chunk lies inside the field
+     */
+    public boolean overlapsChunk(int chunkX, int chunkZ) {
+        int x = chunkX << 4;
+        int z = chunkZ << 4;
+        return x + 15 >= minX && z + 15 >= minZ && x < minX + size && z < minZ + size;
+    }
+
+    public void markDirty(int x, int z) {
+        if (contains(x, z)) {
+            dirty.set(index(x, z));
+        }
+    }
+
+    public void markChunkDirty(int chunkX, int chunkZ) {
+        int fromX = Math.max(chunkX << 4, minX);
+        int toX = Math.min((chunkX << 4) + 15, minX + size - 1);
+        int fromZ = Math.max(chunkZ << 4, minZ);
+        int toZ = Math.min((chunkZ << 4) + 15, minZ + size - 1);
+        for (int z = fromZ; z <= toZ; z++) {
+            dirty.set(index(fromX, z), index(toX, z) + 1);
+        }
+    }
+
+    /**
+     * Sample every column and run the search
+     */
+    public void build(ServerLevel level) {
+        long start = PerfMetric.FLOW_FIELD_BUILD.begin();
+        for (int i = 0; i < heights.length; i++) {
+            sample(level, i);
+        }
+        dirty.clear();
+        search();
+        PerfMetric.FLOW_FIELD_BUILD.end(start);
+    }
+
+    /**
+     * Re-sample dirty columns, re-running the search if any of them changed
+     * @return true if the field changed
+     */
+    public boolean refresh(ServerLevel level) {
+        if (dirty.isEmpty()) return false;
+
+        boolean changed = false;
+        for (int i = dirty.nextSetBit(0); i >= 0; i = dirty.nextSetBit(i + 1)) {
+            int height = heights[i];
+            byte cost = costs[i];
+            sample(level, i);
+            changed |= height != heights[i] || cost != costs[i];
+        }
+        dirty.clear();
+        if (changed) {
+            long start = PerfMetric.FLOW_FIELD_BUILD.begin();
+            search();
+            PerfMetric.FLOW_FIELD_BUILD.end(start);
+        }
+        return changed;
+    }
+
+    /**
+     * Walk downhill through the field from a position
+     * @param steps number of columns to walk
+     * @return the column reached, standing on its surface, or null if the position is outside
+     *         the field or cannot reach the destination
+     */
+    public BlockPos nextWaypoint(double x, double y, double z, int steps) {
+        int blockX = (int) Math.floor(x);
+        int blockZ = (int) Math.floor(z);
+        if (!contains(blockX, blockZ)) return null;
+
+        int cell = index(blockX, blockZ);
+        if (dist[cell] == UNREACHABLE) return null;
+
+        for (int step = 0; step < steps && dist[cell] > 0; step++) {
+            int cellX = cell % size;
+            int cellZ = cell / size;
+            int best = -1;
+            int bestDist = dist[cell];
+            for (int d = 0; d < LOOK_X.length; d++) {
+                int nx = cellX + LOOK_X[d];
+                int nz = cellZ + LOOK_Z[d];
+                if (nx < 0 || nz < 0 || nx >= size || nz >= size) continue;
+                int neighbour = nz * size + nx;
+                if (dist[neighbour] < bestDist) {
+                    bestDist = dist[neighbour];
+                    best = neighbour;
+                }
+            }
+            if (best < 0) break;
+            cell = best;
+        }
+
+        int height = heights[cell] == SurfaceColumn.UNKNOWN_HEIGHT ? (int) Math.floor(y) : heights[cell];
+        return new BlockPos(minX + cell % size, height, minZ + cell / size);
+    }
+
+    private void sample(ServerLevel level, int index) {
+        int x = minX + index % size;
+        int z = minZ + index / size;
+        LevelChunk chunk = level.getChunkSource().getChunkNow(x >> 4, z >> 4); // Never loads the chunk
+        if (chunk == null) {
+            heights[index] = SurfaceColumn.UNKNOWN_HEIGHT;
+            costs[index] = SurfaceColumn.COST_GROUND;
+            return;
+        }
+        heights[index] = SurfaceColumn.height(chunk, x, z);
+        costs[index] = SurfaceColumn.cost(chunk, x, heights[index], z);
+    }
+
+    /**
+     * Dijkstra from the destination with a bucket queue (costs are 1..3)
+     */
+    private void search() {
+        Arrays.fill(dist, UNREACHABLE);
+        Arrays.fill(bucketSizes, 0);
+        int start = index(destination.getX(), destination.getZ());
+        dist[start] = 0;
+        push(0, start);
+        int queued = 1;
+
+        for (int current = 0; queued > 0; current++) {
+            int bucket = current % BUCKETS;
+            while (bucketSizes[bucket] > 0) {
+                int cell = buckets[bucket][--bucketSizes[bucket]];
+                queued--;
+                if (dist[cell] != current) continue; // Superseded by a shorter entry
+
+                int cellX = cell % size;
+                int cellZ = cell / size;
+                for (int d = 0; d < STEP_X.length; d++) {
+                    int nx = cellX + STEP_X[d];
+                    int nz = cellZ + STEP_Z[d];
+                    if (nx < 0 || nz < 0 || nx >= size || nz >= size) continue;
+                    int neighbour = nz * size + nx;
+                    byte cost = costs[neighbour];
+                    if (cost == SurfaceColumn.COST_BLOCKED || !SurfaceColumn.canStep(heights[neighbour], heights[cell])) continue;
+
+                    int candidate = current + cost;
+                    if (candidate < dist[neighbour]) {
+                        dist[neighbour] = candidate;
+                        push(candidate, neighbour);
+                        queued++;
+                    }
+                }
+            }
+        }
+    }
+
+    private void push(int distance, int cell) {
+        int bucket = distance % BUCKETS;
+        if (bucketSizes[bucket] == buckets[bucket].length) {
+            buckets[bucket] = Arrays.copyOf(buckets[bucket], buckets[bucket].length * 2);
+        }
+        buckets[bucket][bucketSizes[bucket]++] = cell;
+    }
+
+    private int index(int x, int z) {
+        return (z - minZ) * size + (x - minX);
+    }
+}
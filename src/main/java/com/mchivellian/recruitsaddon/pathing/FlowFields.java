@@ -0,0 +1,121 @@
+package com.mchivellian.recruitsaddon.pathing;
+
+import com.mchivellian.recruitsaddon.ModMain;
+import com.mchivellian.recruitsaddon.config.RaidConfig;
+import com.mchivellian.recruitsaddon.mission.MissionScheduler;
+import com.mchivellian.recruitsaddon.mission.MissionType;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.LevelAccessor;
+import net.minecraftforge.event.level.BlockEvent;
+import net.minecraftforge.event.level.ChunkEvent;
+import net.minecraftforge.event.level.ExplosionEvent;
+import net.minecraftforge.event.level.LevelEvent;
+import net.minecraftforge.event.server.ServerStartedEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared {@link FlowField}s, one per destination and dimension, so every squad sent to the
+ * same spot uses the same field. Fields are kept up to date from block and chunk-load events
+ * and dropped once no mission has used them for a while.
+ */
+@Mod.EventBusSubscriber(modid = ModMain.MODID)
+public class FlowFields {
+
+    private static final int IDLE_TICKS = 600; // Drop fields unused for 30 seconds
+
+    private static final Map<ResourceKey<Level>, Map<Long, FlowField>> fieldsByLevel = new ConcurrentHashMap<>();
+
+    /**
+     * Field toward this destination, built on first use and refreshed with pending block changes
+     */
+    public static FlowField get(ServerLevel level, BlockPos destination) {
+        int radius = RaidConfig.FLOW_FIELD_RADIUS.get();
+        Map<Long, FlowField> fields = fieldsByLevel.computeIfAbsent(level.dimension(), key -> new ConcurrentHashMap<>());
+        FlowField field = fields.get(destination.asLong());
+        if (field == null || field.getRadius() != radius) {
+            field = new FlowField(destination, radius);
+            field.build(level);
+            fields.put(destination.asLong(), field);
+        } else {
+            field.refresh(level);
+        }
+        field.touch(MissionScheduler.getCurrentTick());
+        return field;
+    }
+
+    private static void markDirty(LevelAccessor level, BlockPos pos) {
+        if (!(level instanceof ServerLevel serverLevel)) return;
+
+        Map<Long, FlowField> fields = fieldsByLevel.get(serverLevel.dimension());
+        if (fields == null) return;
+
+        for (FlowField field : fields.values()) {
+            field.markDirty(pos.getX(), pos.getZ());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onNeighborNotify(BlockEvent.NeighborNotifyEvent event) {
+        markDirty(event.getLevel(), event.getPos());
+    }
+
+    @SubscribeEvent
+    public static void onExplosion(ExplosionEvent.Detonate event) {
+        for (BlockPos pos : event.getAffectedBlocks()) {
+            markDirty(event.getLevel(), pos);
+        }
+    }
+
+    /**
+     * Columns sampled while their chunk was unloaded were guesses; sample them for real now
+     */
+    @SubscribeEvent
+    public static void onChunkLoad(ChunkEvent.Load event) {
+        if (!(event.getLevel() instanceof ServerLevel serverLevel)) return;
+
+        Map<Long, FlowField> fields = fieldsByLevel.get(serverLevel.dimension());
+        if (fields == null) return;
+
+        ChunkPos pos = event.getChunk().getPos();
+        for (FlowField field : fields.values()) {
+            if (field.overlapsChunk(pos.x, pos.z)) {
+                field.markChunkDirty(pos.x, pos.z);
+            }
+        }
+    }
+
+    /**
+     * The idle sweep runs on the {@link MissionScheduler} so it shares the mission tick budget
+     */
+    @SubscribeEvent
+    public static void onServerStarted(ServerStartedEvent event) {
+        MissionScheduler.schedule(MissionType.FLOW_FIELD_SWEEP, server -> {
+            long now = MissionScheduler.getCurrentTick();
+            for (Map<Long, FlowField> fields : fieldsByLevel.values()) {
+                fields.values().removeIf(field -> now - field.getLastUsedTick() > IDLE_TICKS);
+            }
+            return false;
+        });
+    }
+
+    @SubscribeEvent
+    public static void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel() instanceof ServerLevel serverLevel) {
+            fieldsByLevel.remove(serverLevel.dimension());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        fieldsByLevel.clear();
+    }
+}
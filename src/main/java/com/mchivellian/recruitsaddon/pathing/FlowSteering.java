@@ -0,0 +1,100 @@
+package com.mchivellian.recruitsaddon.pathing;
+
+import com.mchivellian.recruitsaddon.config.RaidConfig;
+import com.mchivellian.recruitsaddon.perf.PerfCounter;
+import com.talhanation.recruits.entities.AbstractRecruitEntity;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Mission-owned steering of a large squad along the shared {@link FlowField} of its destination.
+ * Each recruit gets a waypoint a few blocks downhill in the field and a new one once it gets
+ * close, so vanilla navigation only runs short searches. Near the destination the recruit is
+ * handed back to the mission's own order for the final approach to its spot.
+ * Server thread only.
+ */
+public class FlowSteering {
+
+    private static final int LOOKAHEAD_CELLS = 12;
+    private static final double REISSUE_DISTANCE_SQ = 16.0; // New waypoint once within 4 blocks of the current one
+    private static final double FINAL_APPROACH_DISTANCE_SQ = 16.0 * 16.0;
+
+    private final Map<UUID, BlockPos> waypoints = new HashMap<>();
+    private FlowField field;
+    private BlockPos destination;
+
+    /**
+     * Pick up the field for this update. Call once per update before {@link #steer}.
+     */
+    public void prepare(ServerLevel level, BlockPos destination, int squadSize) {
+        if (!RaidConfig.ENABLE_FLOW_FIELD.get() || squadSize < RaidConfig.FLOW_FIELD_MIN_SQUAD.get()) {
+            field = null; // Small squads path individually; steered recruits are handed back in steer()
+            return;
+        }
+        this.destination = destination;
+        this.field = FlowFields.get(level, destination);
+    }
+
+    /**
+     * Give the recruit its next waypoint if it needs one
+     * @param finalApproach sends the mission's own order; called once when a steered recruit leaves the field
+     *                      or reaches the final approach
+     * @return true if the recruit's movement is handled here this update, false if the mission's own order applies
+     */
+    public boolean steer(AbstractRecruitEntity recruit, Consumer<AbstractRecruitEntity> finalApproach) {
+        if (field == null) {
+            return handOff(recruit, finalApproach);
+        }
+
+        double dx = recruit.getX() - (destination.getX() + 0.5);
+        double dz = recruit.getZ() - (destination.getZ() + 0.5);
+        if (dx * dx + dz * dz <= FINAL_APPROACH_DISTANCE_SQ) {
+            return handOff(recruit, finalApproach);
+        }
+
+        BlockPos waypoint = waypoints.get(recruit.getUUID());
+        if (waypoint != null && recruit.getShouldMovePos() && waypoint.equals(recruit.getMovePos())
+                && recruit.distanceToSqr(waypoint.getX() + 0.5, recruit.getY(), waypoint.getZ() + 0.5) > REISSUE_DISTANCE_SQ) {
+            return true; // Still on its way to the current waypoint
+        }
+
+        BlockPos next = field.nextWaypoint(recruit.getX(), recruit.getY(), recruit.getZ(), LOOKAHEAD_CELLS);
+        if (next == null) {
+            return handOff(recruit, finalApproach); // Outside the field or cut off from the destination
+        }
+        waypoints.put(recruit.getUUID(), next);
+        recruit.setMovePos(next);
+        recruit.setShouldMovePos(true);
+        PerfCounter.FLOW_WAYPOINTS.increment();
+        return true;
+    }
+
+    /**
+     * Whether the recruit is currently following a field waypoint
+     */
+    public boolean isSteering(UUID recruitId) {
+        return waypoints.containsKey(recruitId);
+    }
+
+    public void forget(UUID recruitId) {
+        waypoints.remove(recruitId);
+    }
+
+    public void clear() {
+        waypoints.clear();
+        field = null;
+    }
+
+    private boolean handOff(AbstractRecruitEntity recruit, Consumer<AbstractRecruitEntity> finalApproach) {
+        if (waypoints.remove(recruit.getUUID()) == null) {
+            return false;
+        }
+        finalApproach.accept(recruit);
+        return true;
+    }
+}
@@ -0,0 +1,180 @@
+package com.mchivellian.recruitsaddon.pathing;
+
+import com.mchivellian.recruitsaddon.config.RaidConfig;
+import com.mchivellian.recruitsaddon.formation.FormationEngine;
+import com.mchivellian.recruitsaddon.integration.SurfaceCache;
+import com.mchivellian.recruitsaddon.mission.SquadState;
+import com.mchivellian.recruitsaddon.mission.StallDetector;
+import com.mchivellian.recruitsaddon.perf.PerfCounter;
+import com.talhanation.recruits.entities.AbstractRecruitEntity;
+import net.minecraft.core.BlockPos;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Leader-follower marching: only the leader paths to the destination; every other member
+ * steers to its formation slot around the leader's current position. A squad then runs one
+ * long search instead of one per recruit and keeps its shape while travelling, not only on
+ * arrival. Near the destination everyone is handed back to the mission's own order.
+ * Mission-owned, server thread only.
+ */
+public class LeaderFollower {
+
+    private static final FormationEngine.Shape SHAPE = FormationEngine.Shape.GRID;
+    private static final double REISSUE_DISTANCE_SQ = 9.0; // Move a follower's order once its slot drifted 3 blocks
+    private static final double FINAL_APPROACH_DISTANCE_SQ = 16.0 * 16.0;
+
+    private final Map<UUID, Integer> slotOf = new HashMap<>();
+    private final Map<UUID, BlockPos> orders = new HashMap<>();
+    private UUID leaderId;
+    private int facing = -1;
+
+    /**
+     * Move followers to their slots around the leader
+     * @param recruits living members, in the same order as {@code squad}
+     * @param stalls followers on a stall detour keep it until the detector hands them back
+     * @param missionOrder sends the mission's own order to the destination (new leader, or hand-off)
+     * @return the leader, whose route the caller handles, or null when nobody is following
+     */
+    public AbstractRecruitEntity update(List<AbstractRecruitEntity> recruits, SquadState squad, BlockPos target,
+                                        StallDetector stalls, Consumer<AbstractRecruitEntity> missionOrder) {
+        if (!RaidConfig.ENABLE_LEADER_FOLLOWER_MARCH.get() || recruits.size() < 2) {
+            release(recruits, missionOrder);
+            return null;
+        }
+
+        AbstractRecruitEntity leader = findLeader(recruits, squad, missionOrder);
+        double targetX = target.getX() + 0.5;
+        double targetZ = target.getZ() + 0.5;
+        double dx = leader.getX() - targetX;
+        double dz = leader.getZ() - targetZ;
+        if (dx * dx + dz * dz <= FINAL_APPROACH_DISTANCE_SQ) {
+            release(recruits, missionOrder); // Final approach: every recruit paths to the destination itself
+            return null;
+        }
+
+        int followers = recruits.size() - 1;
+        int newFacing = FormationEngine.facingOf(leader.getX(), leader.getZ(), targetX, targetZ);
+        if (newFacing != facing || slotOf.size() != followers || !slotsCover(recruits, leader)) {
+            facing = newFacing;
+            assignSlots(recruits, leader);
+        }
+
+        float[] layout = FormationEngine.getLayout(SHAPE, followers, facing);
+        for (AbstractRecruitEntity recruit : recruits) {
+            if (recruit == leader || stalls.isDetouring(recruit)) continue;
+
+            int slot = slotOf.get(recruit.getUUID());
+            double slotX = leader.getX() + layout[slot * 2];
+            double slotZ = leader.getZ() + layout[slot * 2 + 1];
+            BlockPos order = orders.get(recruit.getUUID());
+            if (order != null && recruit.getShouldMovePos() && order.equals(recruit.getMovePos())) {
+                double ox = order.getX() + 0.5 - slotX;
+                double oz = order.getZ() + 0.5 - slotZ;
+                if (ox * ox + oz * oz <= REISSUE_DISTANCE_SQ) continue; // Slot has not moved far enough to matter
+            }
+
+            BlockPos slotPos = SurfaceCache.getPositionOrSurface(recruit.level(), BlockPos.containing(slotX, leader.getY(), slotZ));
+            orders.put(recruit.getUUID(), slotPos);
+            recruit.setMovePos(slotPos);
+            recruit.setShouldMovePos(true);
+            PerfCounter.FOLLOWER_ORDERS.increment();
+        }
+        return leader;
+    }
+
+    /**
+     * Send a follower to its current slot again, e.g. after a stall
+     * @return false if the recruit is not following
+     */
+    public boolean reissue(AbstractRecruitEntity recruit) {
+        BlockPos order = orders.get(recruit.getUUID());
+        if (order == null) return false;
+
+        recruit.setMovePos(order);
+        recruit.setShouldMovePos(true);
+        PerfCounter.FOLLOWER_ORDERS.increment();
+        return true;
+    }
+
+    /**
+     * Hand every follower back to the mission's own order
+     */
+    public void release(List<AbstractRecruitEntity> recruits, Consumer<AbstractRecruitEntity> missionOrder) {
+        if (orders.isEmpty()) return;
+
+        for (AbstractRecruitEntity recruit : recruits) {
+            if (orders.remove(recruit.getUUID()) != null) {
+                missionOrder.accept(recruit);
+            }
+        }
+        orders.clear();
+        slotOf.clear();
+        leaderId = null;
+        facing = -1;
+    }
+
+    /**
+     * Keep the current leader while it lives; otherwise promote the member closest to the squad's main body
+     */
+    private AbstractRecruitEntity findLeader(List<AbstractRecruitEntity> recruits, SquadState squad,
+                                             Consumer<AbstractRecruitEntity> missionOrder) {
+        int best = 0;
+        double bestDistSq = Double.MAX_VALUE;
+        for (int i = 0; i < recruits.size(); i++) {
+            if (recruits.get(i).getUUID().equals(leaderId)) {
+                return recruits.get(i);
+            }
+            double dx = squad.getX(i) - squad.getBodyX();
+            double dz = squad.getZ(i) - squad.getBodyZ();
+            double distSq = dx * dx + dz * dz;
+            if (distSq < bestDistSq) {
+                bestDistSq = distSq;
+                best = i;
+            }
+        }
+
+        AbstractRecruitEntity leader = recruits.get(best);
+        leaderId = leader.getUUID();
+        if (orders.remove(leaderId) != null) {
+            missionOrder.accept(leader); // A follower promoted to leader needs the real destination
+        }
+        slotOf.clear(); // Force a fresh slot assignment without the new leader
+        return leader;
+    }
+
+    private boolean slotsCover(List<AbstractRecruitEntity> recruits, AbstractRecruitEntity leader) {
+        for (AbstractRecruitEntity recruit : recruits) {
+            if (recruit != leader && !slotOf.containsKey(recruit.getUUID())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void assignSlots(List<AbstractRecruitEntity> recruits, AbstractRecruitEntity leader) {
+        int followers = recruits.size() - 1;
+        double[] memberX = new double[followers];
+        double[] memberZ = new double[followers];
+        UUID[] ids = new UUID[followers];
+        int n = 0;
+        for (AbstractRecruitEntity recruit : recruits) {
+            if (recruit == leader) continue;
+            memberX[n] = recruit.getX();
+            memberZ[n] = recruit.getZ();
+            ids[n++] = recruit.getUUID();
+        }
+
+        float[] layout = FormationEngine.getLayout(SHAPE, followers, facing);
+        int[] slots = FormationEngine.assign(memberX, memberZ, followers, layout, leader.getX(), leader.getZ());
+        slotOf.clear();
+        for (int i = 0; i < followers; i++) {
+            slotOf.put(ids[i], slots[i]);
+        }
+        orders.keySet().retainAll(slotOf.keySet()); // Drop fallen members
+    }
+}
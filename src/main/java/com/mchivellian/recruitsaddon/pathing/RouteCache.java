@@ -0,0 +1,298 @@
+package com.mchivellian.recruitsaddon.pathing;
+
+import com.mchivellian.recruitsaddon.ModMain;
+import com.mchivellian.recruitsaddon.config.RaidConfig;
+import net.minecraft.core.BlockPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.LongArrayTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.LevelAccessor;
+import net.minecraft.world.level.levelgen.Heightmap;
+import net.minecraft.world.level.saveddata.SavedData;
+import net.minecraftforge.event.level.BlockEvent;
+import net.minecraftforge.event.level.ExplosionEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Per-level store of planned routes, so squads sent to the same village or outpost again
+ * reuse the route instead of planning from scratch.
+ * - Routes are indexed by destination chunk; a squad joins a cached route at the waypoint
+ *   nearest to it, so any start along an earlier route to the same place is a hit
+ * - A fresh plan that starts on a cached route replaces that route's tail, so repeated
+ *   missions keep one route per way in rather than piling up copies
+ * - Every route also indexes the chunks it crosses; a block change at the surface of one of
+ *   those chunks drops the route
+ * Least used routes are evicted beyond the configured size. Server thread only.
+ */
+@Mod.EventBusSubscriber(modid = ModMain.MODID)
+public class RouteCache extends SavedData {
+
+    private static final String DATA_NAME = ModMain.MODID + "_routes";
+    private static final int ROUTES_PER_DESTINATION = 4;
+    private static final double JOIN_DISTANCE_SQ = 32.0 * 32.0; // A route is joined if it passes within 32 blocks
+    private static final int TRACE_STEP = 4;
+    private static final int SURFACE_DEPTH = 3; // Changes deeper below the surface do not affect walking
+
+    private final Map<Long, List<CachedRoute>> byDestination = new HashMap<>();
+    private final Map<Long, List<CachedRoute>> byChunk = new HashMap<>();
+    private int size;
+
+    public static RouteCache get(ServerLevel level) {
+        return level.getDataStorage().computeIfAbsent(RouteCache::load, RouteCache::new, DATA_NAME);
+    }
+
+    /**
+     * Cached route to the target's chunk that passes near {@code from}
+     * @return the best match (marked as used), or null
+     */
+    public CachedRoute find(BlockPos from, BlockPos target, long gameTime) {
+        List<CachedRoute> candidates = byDestination.get(chunkKey(target));
+        if (candidates == null) return null;
+
+        CachedRoute best = null;
+        double bestDistSq = JOIN_DISTANCE_SQ;
+        for (CachedRoute route : candidates) {
+            double distSq = route.distanceSqTo(route.nearestWaypoint(from), from);
+            if (distSq <= bestDistSq) {
+                bestDistSq = distSq;
+                best = route;
+            }
+        }
+        if (best != null) {
+            best.uses++;
+            best.lastUsed = gameTime;
+            setDirty();
+        }
+        return best;
+    }
+
+    /**
+     * Remember a complete route; if it starts on a cached route to the same place, it replaces that route's tail
+     * @return the stored route
+     */
+    public CachedRoute store(BlockPos from, BlockPos target, long[] waypoints, long gameTime) {
+        int limit = RaidConfig.ROUTE_CACHE_SIZE.get();
+        if (limit == 0 || waypoints.length == 0) return null;
+
+        long destination = chunkKey(target);
+        List<CachedRoute> candidates = byDestination.get(destination);
+        CachedRoute joined = null;
+        int joinIndex = 0;
+        if (candidates != null) {
+            for (CachedRoute route : candidates) {
+                int nearest = route.nearestWaypoint(from);
+                if (route.distanceSqTo(nearest, from) <= JOIN_DISTANCE_SQ) {
+                    joined = route;
+                    joinIndex = nearest;
+                    break;
+                }
+            }
+        }
+
+        CachedRoute stored;
+        if (joined != null) {
+            long[] merged = Arrays.copyOf(joined.waypoints, joinIndex + waypoints.length);
+            System.arraycopy(waypoints, 0, merged, joinIndex, waypoints.length);
+            remove(joined);
+            stored = new CachedRoute(joined.from, merged, joined.uses, gameTime);
+        } else {
+            stored = new CachedRoute(from.asLong(), waypoints, 0, gameTime);
+            if (candidates != null && candidates.size() >= ROUTES_PER_DESTINATION) {
+                remove(leastUsed(candidates));
+            }
+        }
+        add(stored);
+        while (size > limit) {
+            List<CachedRoute> all = new ArrayList<>();
+            byDestination.values().forEach(all::addAll);
+            remove(leastUsed(all));
+        }
+        setDirty();
+        return stored;
+    }
+
+    private void add(CachedRoute route) {
+        byDestination.computeIfAbsent(chunkKey(BlockPos.of(route.waypoints[route.waypoints.length - 1])), key -> new ArrayList<>()).add(route);
+        for (long chunk : route.chunks) {
+            byChunk.computeIfAbsent(chunk, key -> new ArrayList<>()).add(route);
+        }
+        size++;
+    }
+
+    private void remove(CachedRoute route) {
+        if (route.invalid) return;
+        route.invalid = true;
+        removeFrom(byDestination, chunkKey(BlockPos.of(route.waypoints[route.waypoints.length - 1])), route);
+        for (long chunk : route.chunks) {
+            removeFrom(byChunk, chunk, route);
+        }
+        size--;
+    }
+
+    private static void removeFrom(Map<Long, List<CachedRoute>> index, long key, CachedRoute route) {
+        List<CachedRoute> routes = index.get(key);
+        if (routes != null && routes.remove(route) && routes.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private static CachedRoute leastUsed(List<CachedRoute> routes) {
+        CachedRoute worst = routes.get(0);
+        for (CachedRoute route : routes) {
+            if (route.uses < worst.uses || (route.uses == worst.uses && route.lastUsed < worst.lastUsed)) {
+                worst = route;
+            }
+        }
+        return worst;
+    }
+
+    /**
+     * Drop every route through the chunk of a block change that touched the walking surface
+     */
+    private static void onBlockChanged(LevelAccessor accessor, BlockPos pos) {
+        if (!(accessor instanceof ServerLevel level)) return;
+
+        RouteCache cache = get(level);
+        List<CachedRoute> routes = cache.byChunk.get(chunkKey(pos));
+        if (routes == null) return;
+
+        int surface = level.getHeight(Heightmap.Types.MOTION_BLOCKING_NO_LEAVES, pos.getX(), pos.getZ());
+        if (pos.getY() < surface - SURFACE_DEPTH) return; // Underground: mining and cellars do not change the route
+
+        for (CachedRoute route : new ArrayList<>(routes)) {
+            cache.remove(route);
+        }
+        cache.setDirty();
+    }
+
+    @SubscribeEvent
+    public static void onNeighborNotify(BlockEvent.NeighborNotifyEvent event) {
+        onBlockChanged(event.getLevel(), event.getPos());
+    }
+
+    @SubscribeEvent
+    public static void onExplosion(ExplosionEvent.Detonate event) {
+        for (BlockPos pos : event.getAffectedBlocks()) {
+            onBlockChanged(event.getLevel(), pos);
+        }
+    }
+
+    public static RouteCache load(CompoundTag tag) {
+        RouteCache cache = new RouteCache();
+        ListTag entries = tag.getList("Routes", Tag.TAG_COMPOUND);
+        for (int i = 0; i < entries.size(); i++) {
+            CompoundTag entry = entries.getCompound(i);
+            long[] waypoints = entry.getLongArray("Waypoints");
+            if (waypoints.length == 0) continue;
+            cache.add(new CachedRoute(entry.getLong("From"), waypoints, entry.getInt("Uses"), entry.getLong("LastUsed")));
+        }
+        return cache;
+    }
+
+    @Override
+    public CompoundTag save(CompoundTag tag) {
+        ListTag entries = new ListTag();
+        for (List<CachedRoute> routes : byDestination.values()) {
+            for (CachedRoute route : routes) {
+                CompoundTag entry = new CompoundTag();
+                entry.putLong("From", route.from);
+                entry.put("Waypoints", new LongArrayTag(route.waypoints));
+                entry.putInt("Uses", route.uses);
+                entry.putLong("LastUsed", route.lastUsed);
+                entries.add(entry);
+            }
+        }
+        tag.put("Routes", entries);
+        return tag;
+    }
+
+    private static long chunkKey(BlockPos pos) {
+        return ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4);
+    }
+
+    /**
+     * One cached route: waypoints from its original start to its destination
+     */
+    public static final class CachedRoute {
+        private final long from;
+        private final long[] waypoints;
+        private final long[] chunks; // Chunks the route crosses
+        private int uses;
+        private long lastUsed;
+        private boolean invalid;
+
+        private CachedRoute(long from, long[] waypoints, int uses, long lastUsed) {
+            this.from = from;
+            this.waypoints = waypoints;
+            this.chunks = trace(BlockPos.of(from), waypoints);
+            this.uses = uses;
+            this.lastUsed = lastUsed;
+        }
+
+        /**
+         * False once a block change along the route dropped it from the cache
+         */
+        public boolean isValid() {
+            return !invalid;
+        }
+
+        /**
+         * Waypoints from the one nearest {@code pos} onward, ending exactly at the target
+         */
+        public long[] suffixFrom(BlockPos pos, BlockPos target) {
+            long[] suffix = Arrays.copyOfRange(waypoints, nearestWaypoint(pos), waypoints.length);
+            suffix[suffix.length - 1] = target.asLong();
+            return suffix;
+        }
+
+        private int nearestWaypoint(BlockPos pos) {
+            int nearest = 0;
+            double nearestDistSq = Double.MAX_VALUE;
+            for (int i = 0; i < waypoints.length; i++) {
+                double distSq = distanceSqTo(i, pos);
+                if (distSq < nearestDistSq) {
+                    nearestDistSq = distSq;
+                    nearest = i;
+                }
+            }
+            return nearest;
+        }
+
+        private double distanceSqTo(int index, BlockPos pos) {
+            long waypoint = waypoints[index];
+            double dx = BlockPos.getX(waypoint) - pos.getX();
+            double dz = BlockPos.getZ(waypoint) - pos.getZ();
+            return dx * dx + dz * dz;
+        }
+
+        private static long[] trace(BlockPos from, long[] waypoints) {
+            Set<Long> chunks = new LinkedHashSet<>();
+            double x = from.getX();
+            double z = from.getZ();
+            for (long waypoint : waypoints) {
+                double toX = BlockPos.getX(waypoint);
+                double toZ = BlockPos.getZ(waypoint);
+                int steps = (int) Math.ceil(Math.max(Math.abs(toX - x), Math.abs(toZ - z)) / TRACE_STEP);
+                for (int step = 0; step <= steps; step++) {
+                    double t = steps == 0 ? 1.0 : (double) step / steps;
+                    chunks.add(ChunkPos.asLong((int) Math.floor(x + (toX - x) * t) >> 4, (int) Math.floor(z + (toZ - z) * t) >> 4));
+                }
+                x = toX;
+                z = toZ;
+            }
+            return chunks.stream().mapToLong(Long::longValue).toArray();
+        }
+    }
+}
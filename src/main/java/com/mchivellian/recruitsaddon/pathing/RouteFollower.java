@@ -0,0 +1,192 @@
+package com.mchivellian.recruitsaddon.pathing;
+
+import com.mchivellian.recruitsaddon.config.RaidConfig;
+import com.mchivellian.recruitsaddon.integration.SurfaceCache;
+import com.mchivellian.recruitsaddon.mission.MissionScheduler;
+import com.mchivellian.recruitsaddon.mission.SquadState;
+import com.mchivellian.recruitsaddon.perf.PerfCounter;
+import com.talhanation.recruits.entities.AbstractRecruitEntity;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Mission-owned follower of a {@link RoutePlanner} route. While the squad is far from its
+ * destination, members are sent from waypoint to waypoint instead of to the destination
+ * itself, so vanilla navigation never runs a long search on the server thread. Routes are
+ * taken from the {@link RouteCache} when an earlier mission went the same way; otherwise,
+ * until the first plan comes back, the squad heads for a point a short way along the
+ * straight line. Server thread only.
+ */
+public class RouteFollower {
+
+    private static final double WAYPOINT_REACHED_SQ = 16.0 * 16.0; // Advance once the squad's body is within 16 blocks
+    private static final double HANDOFF_DISTANCE_SQ = 64.0 * 64.0; // Close enough for the mission's own order / flow field
+    private static final double REPLAN_DISTANCE_SQ = 192.0 * 192.0; // Re-plan with fresh snapshots after this much travel
+    private static final int INTERIM_DISTANCE = 32;
+    private static final int RETRY_TICKS = 200;
+
+    private final Map<UUID, BlockPos> orders = new HashMap<>();
+    private CompletableFuture<long[]> pending;
+    private long[] route;
+    private RouteCache.CachedRoute cached; // Set while the route came from the cache
+    private int nextWaypoint;
+    private BlockPos plannedFrom;
+    private BlockPos interim;
+    private BlockPos current;
+    private long retryTick;
+
+    /**
+     * Collect finished plans, request new ones and pick the waypoint for this update.
+     * Call once per update before {@link #steer}.
+     */
+    public void prepare(ServerLevel level, SquadState squad, BlockPos target) {
+        current = null;
+        if (!RaidConfig.ENABLE_ROUTE_PLANNER.get() || squad.size() == 0) {
+            reset();
+            return;
+        }
+
+        double distanceSq = squad.centroidDistanceSqXZ(target.getX() + 0.5, target.getZ() + 0.5);
+        int minDistance = RaidConfig.ROUTE_MIN_DISTANCE.get();
+        boolean active = route != null || pending != null || interim != null;
+        if (distanceSq <= (active ? HANDOFF_DISTANCE_SQ : (double) minDistance * minDistance)) {
+            reset(); // Short march, or the end of the route: the mission's own order takes over
+            return;
+        }
+
+        long now = MissionScheduler.getCurrentTick();
+        RouteCache cache = RouteCache.get(level);
+        if (pending != null && pending.isDone()) {
+            long[] planned = pending.join(); // Never throws, failures complete with null
+            pending = null;
+            if (planned != null && planned.length > 0) {
+                route = planned;
+                nextWaypoint = 0;
+                if (planned[planned.length - 1] == target.asLong()) {
+                    cache.store(plannedFrom, target, planned, level.getGameTime());
+                }
+            } else {
+                retryTick = now + RETRY_TICKS;
+            }
+        }
+
+        BlockPos body = BlockPos.containing(squad.getBodyX(), squad.getBodyY(), squad.getBodyZ());
+        if (cached != null && !cached.isValid()) {
+            route = null; // Blocks changed along the cached route: plan it again
+            cached = null;
+        }
+        if (route == null && pending == null) {
+            RouteCache.CachedRoute hit = cache.find(body, target, level.getGameTime());
+            if (hit != null) {
+                route = hit.suffixFrom(body, target);
+                cached = hit;
+                nextWaypoint = 0;
+                plannedFrom = body;
+                PerfCounter.ROUTE_CACHE_HITS.increment();
+            }
+        }
+
+        boolean exhausted = route != null && nextWaypoint >= route.length;
+        boolean stale = cached == null && plannedFrom != null && plannedFrom.distSqr(body) > REPLAN_DISTANCE_SQ;
+        if (pending == null && now >= retryTick && (route == null || exhausted || stale)) {
+            pending = RoutePlanner.plan(level, body, target);
+            plannedFrom = body;
+        }
+
+        if (route != null) {
+            while (nextWaypoint < route.length && distanceSqXZ(BlockPos.of(route[nextWaypoint]), body) <= WAYPOINT_REACHED_SQ) {
+                nextWaypoint++;
+            }
+            if (nextWaypoint < route.length) {
+                interim = null;
+                current = onSurface(level, BlockPos.of(route[nextWaypoint]));
+                return;
+            }
+        }
+
+        // No usable route (yet): a short hop along the straight line
+        if (interim == null || distanceSqXZ(interim, body) <= WAYPOINT_REACHED_SQ) {
+            double dx = target.getX() - body.getX();
+            double dz = target.getZ() - body.getZ();
+            double scale = INTERIM_DISTANCE / Math.max(INTERIM_DISTANCE, Math.sqrt(dx * dx + dz * dz));
+            interim = onSurface(level, BlockPos.containing(body.getX() + dx * scale, body.getY(), body.getZ() + dz * scale));
+        }
+        current = interim;
+    }
+
+    /**
+     * Send the recruit to the current waypoint if it is not already heading there
+     * @param missionOrder sends the mission's own order; called once when the route ends for a recruit
+     * @return true if the recruit's movement is handled here this update, false if the mission's own order applies
+     */
+    public boolean steer(AbstractRecruitEntity recruit, Consumer<AbstractRecruitEntity> missionOrder) {
+        if (current == null) {
+            if (orders.remove(recruit.getUUID()) == null) {
+                return false;
+            }
+            missionOrder.accept(recruit);
+            return true;
+        }
+
+        if (current.equals(orders.get(recruit.getUUID())) && recruit.getShouldMovePos() && current.equals(recruit.getMovePos())) {
+            return true; // Already on its way
+        }
+        orders.put(recruit.getUUID(), current);
+        recruit.setMovePos(current);
+        recruit.setShouldMovePos(true);
+        PerfCounter.ROUTE_WAYPOINTS.increment();
+        return true;
+    }
+
+    /**
+     * Drop the recruit's last order so the next {@link #steer} sends the current waypoint again
+     */
+    public void forget(UUID recruitId) {
+        orders.remove(recruitId);
+    }
+
+    /**
+     * Waypoints still ahead of the squad, ending at the target
+     */
+    public long[] remainingRoute(BlockPos target) {
+        if (route == null || nextWaypoint >= route.length) {
+            return new long[] { target.asLong() };
+        }
+        long[] remaining = Arrays.copyOfRange(route, nextWaypoint, route.length);
+        if (remaining[remaining.length - 1] != target.asLong()) {
+            // Partial route: carry on in a straight line from its end
+            remaining = Arrays.copyOf(remaining, remaining.length + 1);
+            remaining[remaining.length - 1] = target.asLong();
+        }
+        return remaining;
+    }
+
+    private void reset() {
+        route = null;
+        cached = null;
+        pending = null; // An in-flight plan just finishes unused
+        interim = null;
+        plannedFrom = null;
+        retryTick = 0;
+    }
+
+    /**
+     * Surface position of a waypoint, probed only when its chunk is loaded
+     */
+    private static BlockPos onSurface(ServerLevel level, BlockPos pos) {
+        return level.hasChunk(pos.getX() >> 4, pos.getZ() >> 4) ? SurfaceCache.getPositionOrSurface(level, pos) : pos;
+    }
+
+    private static double distanceSqXZ(BlockPos pos, BlockPos other) {
+        double dx = pos.getX() - other.getX();
+        double dz = pos.getZ() - other.getZ();
+        return dx * dx + dz * dz;
+    }
+}
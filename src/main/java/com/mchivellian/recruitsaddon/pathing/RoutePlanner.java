@@ -0,0 +1,338 @@
+package com.mchivellian.recruitsaddon.pathing;
+
+import com.mchivellian.recruitsaddon.ModMain;
+import com.mchivellian.recruitsaddon.config.RaidConfig;
+import com.mchivellian.recruitsaddon.perf.PerfCounter;
+import com.mchivellian.recruitsaddon.perf.PerfMetric;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Off-thread planner for long marches and raids.
+ * - On the server thread, the surface columns of the loaded chunks along the straight corridor
+ *   between start and destination are copied into a read-only snapshot (no chunk is loaded)
+ * - A worker thread runs A* over that snapshot and turns the path into waypoints every 16 blocks
+ * - The result comes back as a future the mission polls on its next update
+ * Columns of unloaded chunks count as open ground; missions re-plan as they advance and the
+ * chunks around them load. Routes longer than {@link #MAX_ROUTE_LENGTH} end part way and are
+ * continued by the next plan.
+ */
+@Mod.EventBusSubscriber(modid = ModMain.MODID)
+public class RoutePlanner {
+
+    public static final int MAX_ROUTE_LENGTH = 1024;
+    private static final int CORRIDOR_HALF_WIDTH = 32;
+    private static final int CORRIDOR_MARGIN = 16; // Cells before the start and past the destination
+    private static final int WAYPOINT_SPACING = 16;
+    private static final int MAX_EXPANSIONS = 400_000;
+    private static final int STRAIGHT_COST = 10;
+    private static final int DIAGONAL_COST = 14;
+    private static final int[] STEP_U = {1, -1, 0, 0, 1, 1, -1, -1};
+    private static final int[] STEP_V = {0, 0, 1, -1, 1, -1, 1, -1};
+
+    private static ExecutorService executor;
+
+    /**
+     * Snapshot the corridor now and plan on a worker thread
+     * @return future of the waypoints (BlockPos longs, ending at the destination or the end of a
+     *         partial route), or of null when no route was found
+     */
+    public static CompletableFuture<long[]> plan(ServerLevel level, BlockPos from, BlockPos to) {
+        long start = PerfMetric.ROUTE_SNAPSHOT.begin();
+        Corridor corridor = Corridor.snapshot(level, from, to);
+        PerfMetric.ROUTE_SNAPSHOT.end(start);
+
+        return CompletableFuture.supplyAsync(corridor::search, executor())
+            .exceptionally(e -> {
+                ModMain.LOGGER.warn("Route planning from {} to {} failed", from, to, e);
+                return null;
+            });
+    }
+
+    private static synchronized ExecutorService executor() {
+        if (executor == null) {
+            AtomicInteger threadCount = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(RaidConfig.ROUTE_PLANNER_THREADS.get(), runnable -> {
+                Thread thread = new Thread(runnable, "Recruits Addon Route Planner #" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setPriority(Thread.NORM_PRIORITY - 1);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    @SubscribeEvent
+    public static synchronized void onServerStopped(ServerStoppedEvent event) {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Read-only copy of the terrain along a straight corridor, searched in corridor space:
+     * {@code u} runs along the corridor, {@code v} across it.
+     */
+    private static final class Corridor {
+        private final BlockPos from;
+        private final BlockPos to;
+        private final double originX;
+        private final double originZ;
+        private final double dirX;
+        private final double dirZ;
+        private final int length;
+        private final boolean partial;
+        private final int cellsU;
+        private final int cellsV;
+        private final Map<Long, Columns> chunks = new HashMap<>();
+
+        private Corridor(BlockPos from, BlockPos to) {
+            this.from = from;
+            double dx = to.getX() - from.getX();
+            double dz = to.getZ() - from.getZ();
+            double distance = Math.max(1.0, Math.sqrt(dx * dx + dz * dz));
+            this.dirX = dx / distance;
+            this.dirZ = dz / distance;
+            this.length = (int) Math.min(Math.round(distance), MAX_ROUTE_LENGTH);
+            this.partial = distance > MAX_ROUTE_LENGTH;
+            this.to = partial ? BlockPos.containing(from.getX() + dirX * length, from.getY(), from.getZ() + dirZ * length) : to;
+            this.originX = from.getX() + 0.5;
+            this.originZ = from.getZ() + 0.5;
+            this.cellsU = length + CORRIDOR_MARGIN * 2 + 1;
+            this.cellsV = CORRIDOR_HALF_WIDTH * 2 + 1;
+        }
+
+        /**
+         * Copy the columns of every loaded chunk the corridor passes through (server thread)
+         */
+        static Corridor snapshot(ServerLevel level, BlockPos from, BlockPos to) {
+            Corridor corridor = new Corridor(from, to);
+            double endX = corridor.originX + corridor.dirX * corridor.length;
+            double endZ = corridor.originZ + corridor.dirZ * corridor.length;
+            int reach = CORRIDOR_HALF_WIDTH + CORRIDOR_MARGIN;
+            int minChunkX = ((int) Math.floor(Math.min(corridor.originX, endX)) - reach) >> 4;
+            int maxChunkX = ((int) Math.floor(Math.max(corridor.originX, endX)) + reach) >> 4;
+            int minChunkZ = ((int) Math.floor(Math.min(corridor.originZ, endZ)) - reach) >> 4;
+            int maxChunkZ = ((int) Math.floor(Math.max(corridor.originZ, endZ)) + reach) >> 4;
+
+            for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+                for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                    if (!corridor.touchesChunk(chunkX, chunkZ)) continue;
+                    LevelChunk chunk = level.getChunkSource().getChunkNow(chunkX, chunkZ); // Never loads the chunk
+                    if (chunk != null) {
+                        corridor.chunks.put(ChunkPos.asLong(chunkX, chunkZ), Columns.copyOf(chunk));
+                    }
+                }
+            }
+            return corridor;
+        }
+
+        private boolean touchesChunk(int chunkX, int chunkZ) {
+            double centerX = (chunkX << 4) + 8 - originX;
+            double centerZ = (chunkZ << 4) + 8 - originZ;
+            double along = centerX * dirX + centerZ * dirZ;
+            double across = Math.abs(centerZ * dirX - centerX * dirZ);
+            double chunkRadius = 12; // Half diagonal of a chunk, rounded up
+            return across <= CORRIDOR_HALF_WIDTH + chunkRadius
+                && along >= -CORRIDOR_MARGIN - chunkRadius && along <= length + CORRIDOR_MARGIN + chunkRadius;
+        }
+
+        /**
+         * A* over the corridor (worker thread)
+         */
+        long[] search() {
+            int cells = cellsU * cellsV;
+            int[] heights = new int[cells];
+            byte[] costs = new byte[cells];
+            for (int cell = 0; cell < cells; cell++) {
+                int x = worldX(cell);
+                int z = worldZ(cell);
+                Columns columns = chunks.get(ChunkPos.asLong(x >> 4, z >> 4));
+                if (columns == null) {
+                    heights[cell] = SurfaceColumn.UNKNOWN_HEIGHT;
+                    costs[cell] = SurfaceColumn.COST_GROUND;
+                } else {
+                    int index = ((z & 15) << 4) | (x & 15);
+                    heights[cell] = columns.heights[index];
+                    costs[cell] = columns.costs[index];
+                }
+            }
+
+            int startCell = cell(CORRIDOR_MARGIN, CORRIDOR_HALF_WIDTH);
+            int goalCell = cell(CORRIDOR_MARGIN + length, CORRIDOR_HALF_WIDTH);
+            int goalU = CORRIDOR_MARGIN + length;
+            int goalV = CORRIDOR_HALF_WIDTH;
+            int[] g = new int[cells];
+            int[] parent = new int[cells];
+            boolean[] closed = new boolean[cells];
+            Arrays.fill(g, Integer.MAX_VALUE);
+            g[startCell] = 0;
+            parent[startCell] = -1;
+            LongHeap open = new LongHeap();
+            open.push(heuristic(startCell, goalU, goalV), startCell);
+
+            int expansions = 0;
+            while (!open.isEmpty() && expansions < MAX_EXPANSIONS) {
+                int cell = open.popCell();
+                if (closed[cell]) continue;
+                closed[cell] = true;
+                expansions++;
+                if (cell == goalCell) break;
+
+                int u = cell / cellsV;
+                int v = cell % cellsV;
+                for (int d = 0; d < STEP_U.length; d++) {
+                    int nu = u + STEP_U[d];
+                    int nv = v + STEP_V[d];
+                    if (nu < 0 || nv < 0 || nu >= cellsU || nv >= cellsV) continue;
+                    int neighbour = cell(nu, nv);
+                    byte cost = costs[neighbour];
+                    if (closed[neighbour] || cost == SurfaceColumn.COST_BLOCKED
+                        || !SurfaceColumn.canStep(heights[cell], heights[neighbour])) continue;
+
+                    int candidate = g[cell] + (d < 4 ? STRAIGHT_COST : DIAGONAL_COST) * cost;
+                    if (candidate < g[neighbour]) {
+                        g[neighbour] = candidate;
+                        parent[neighbour] = cell;
+                        open.push(candidate + heuristic(neighbour, goalU, goalV), neighbour);
+                    }
+                }
+            }
+
+            if (!closed[goalCell]) {
+                PerfCounter.ROUTES_FAILED.increment();
+                return null;
+            }
+            PerfCounter.ROUTES_PLANNED.increment();
+            return toWaypoints(parent, heights, goalCell);
+        }
+
+        /**
+         * Every {@link #WAYPOINT_SPACING}th cell of the path, ending exactly at the destination.
+         * A partial route ends on the surface of its last cell rather than at the start's height.
+         */
+        private long[] toWaypoints(int[] parent, int[] heights, int goalCell) {
+            int pathLength = 0;
+            for (int cell = goalCell; cell >= 0; cell = parent[cell]) {
+                pathLength++;
+            }
+            int[] path = new int[pathLength];
+            int index = pathLength;
+            for (int cell = goalCell; cell >= 0; cell = parent[cell]) {
+                path[--index] = cell;
+            }
+
+            long[] waypoints = new long[(pathLength - 1) / WAYPOINT_SPACING + 1];
+            int count = 0;
+            for (int i = WAYPOINT_SPACING; i < pathLength - 1; i += WAYPOINT_SPACING) {
+                int cell = path[i];
+                int y = heights[cell] == SurfaceColumn.UNKNOWN_HEIGHT
+                    ? from.getY() + (to.getY() - from.getY()) * i / pathLength : heights[cell];
+                waypoints[count++] = BlockPos.asLong(worldX(cell), y, worldZ(cell));
+            }
+            waypoints[count++] = partial && heights[goalCell] != SurfaceColumn.UNKNOWN_HEIGHT
+                ? BlockPos.asLong(worldX(goalCell), heights[goalCell], worldZ(goalCell)) : to.asLong();
+            return Arrays.copyOf(waypoints, count);
+        }
+
+        private int heuristic(int cell, int goalU, int goalV) {
+            int du = Math.abs(cell / cellsV - goalU);
+            int dv = Math.abs(cell % cellsV - goalV);
+            return STRAIGHT_COST * Math.max(du, dv) + (DIAGONAL_COST - STRAIGHT_COST) * Math.min(du, dv);
+        }
+
+        private int cell(int u, int v) {
+            return u * cellsV + v;
+        }
+
+        private int worldX(int cell) {
+            double u = cell / cellsV - CORRIDOR_MARGIN;
+            double v = cell % cellsV - CORRIDOR_HALF_WIDTH;
+            return (int) Math.floor(originX + u * dirX - v * dirZ);
+        }
+
+        private int worldZ(int cell) {
+            double u = cell / cellsV - CORRIDOR_MARGIN;
+            double v = cell % cellsV - CORRIDOR_HALF_WIDTH;
+            return (int) Math.floor(originZ + u * dirZ + v * dirX);
+        }
+    }
+
+    /**
+     * Surface columns of one chunk, copied on the server thread
+     */
+    private static final class Columns {
+        final int[] heights = new int[256];
+        final byte[] costs = new byte[256];
+
+        static Columns copyOf(LevelChunk chunk) {
+            Columns columns = new Columns();
+            int baseX = chunk.getPos().getMinBlockX();
+            int baseZ = chunk.getPos().getMinBlockZ();
+            for (int index = 0; index < 256; index++) {
+                int x = baseX + (index & 15);
+                int z = baseZ + (index >> 4);
+                columns.heights[index] = SurfaceColumn.height(chunk, x, z);
+                columns.costs[index] = SurfaceColumn.cost(chunk, x, columns.heights[index], z);
+            }
+            return columns;
+        }
+    }
+
+    /**
+     * Min-heap of (priority, cell) pairs packed into longs
+     */
+    private static final class LongHeap {
+        private long[] items = new long[1024];
+        private int size;
+
+        void push(int priority, int cell) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            long item = ((long) priority << 32) | (cell & 0xFFFFFFFFL);
+            int index = size++;
+            while (index > 0) {
+                int parentIndex = (index - 1) >> 1;
+                if (items[parentIndex] <= item) break;
+                items[index] = items[parentIndex];
+                index = parentIndex;
+            }
+            items[index] = item;
+        }
+
+        int popCell() {
+            long top = items[0];
+            long last = items[--size];
+            int index = 0;
+            while (true) {
+                int child = index * 2 + 1;
+                if (child >= size) break;
+                if (child + 1 < size && items[child + 1] < items[child]) child++;
+                if (items[child] >= last) break;
+                items[index] = items[child];
+                index = child;
+            }
+            items[index] = last;
+            return (int) top;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.mchivellian.recruitsaddon.pathing;
+
+import net.minecraft.tags.FluidTags;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.levelgen.Heightmap;
+import net.minecraft.world.level.material.FluidState;
+
+/**
+ * Surface-column model shared by the pathing code: a column's standing height and crossing
+ * cost read from a loaded chunk, and the step rule between neighbouring columns.
+ * Columns of unloaded chunks are {@link #UNKNOWN_HEIGHT} and count as open ground.
+ */
+final class SurfaceColumn {
+
+    static final int UNKNOWN_HEIGHT = Integer.MIN_VALUE;
+    static final byte COST_BLOCKED = 0;
+    static final byte COST_GROUND = 1;
+    static final byte COST_WATER = 3; // Swimming is slow, prefer a detour of up to 3 blocks per water block
+
+    private static final int MAX_STEP_UP = 1;
+    private static final int MAX_DROP = 3;
+
+    private SurfaceColumn() {}
+
+    /**
+     * Y a recruit stands at on top of the column (fluids count as the surface)
+     */
+    static int height(LevelChunk chunk, int x, int z) {
+        return chunk.getHeight(Heightmap.Types.MOTION_BLOCKING_NO_LEAVES, x & 15, z & 15) + 1;
+    }
+
+    static byte cost(LevelChunk chunk, int x, int height, int z) {
+        FluidState fluid = chunk.getFluidState(x, height - 1, z);
+        return fluid.is(FluidTags.LAVA) ? COST_BLOCKED : fluid.is(FluidTags.WATER) ? COST_WATER : COST_GROUND;
+    }
+
+    /**
+     * Whether a recruit can walk from one column onto the adjacent one
+     */
+    static boolean canStep(int fromHeight, int toHeight) {
+        if (fromHeight == UNKNOWN_HEIGHT || toHeight == UNKNOWN_HEIGHT) return true;
+        int rise = toHeight - fromHeight;
+        return rise <= MAX_STEP_UP && -rise <= MAX_DROP;
+    }
+}
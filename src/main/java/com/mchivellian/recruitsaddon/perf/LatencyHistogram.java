@@ -0,0 +1,95 @@
+package com.mchivellian.recruitsaddon.perf;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size, HdrHistogram-style latency histogram in nanoseconds.
+ * Values below 16 get exact buckets; above that every power of two is split into 16
+ * linear sub-buckets, so any recorded value is reported within ~6%. Recording is a
+ * couple of shifts and one atomic increment, with no allocation.
+ */
+public class LatencyHistogram {
+    
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+    
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        buckets.incrementAndGet(bucketOf(nanos));
+        count.increment();
+        total.add(nanos);
+        max.accumulate(nanos);
+    }
+    
+    public long getCount() {
+        return count.sum();
+    }
+    
+    public long getTotalNanos() {
+        return total.sum();
+    }
+    
+    public long getMaxNanos() {
+        return max.get();
+    }
+    
+    /**
+     * Approximate value at the given percentile (0-100), or 0 if nothing was recorded
+     */
+    public long getPercentile(double percentile) {
+        long recorded = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = buckets.get(i);
+            recorded += snapshot[i];
+        }
+        if (recorded == 0) return 0;
+        
+        long rank = Math.max(1, (long) Math.ceil(recorded * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(midpointOf(i), getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+    
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        total.reset();
+        max.reset();
+    }
+    
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+        return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + sub;
+    }
+    
+    static long midpointOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+        int sub = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        long lower = (SUB_BUCKETS + sub) * width;
+        return lower + width / 2;
+    }
+}
@@ -0,0 +1,54 @@
+package com.mchivellian.recruitsaddon.perf;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Plain event counters for hot paths (cache hits, skipped work, ...)
+ */
+public enum PerfCounter {
+    SURFACE_CACHE_HIT("surface.cacheHit"),
+    SURFACE_CACHE_MISS("surface.cacheMiss"),
+    ORDERS_SENT("orders.sent"),
+    ORDERS_SKIPPED("orders.skipped"),
+    TARGETS_CHANGED("targets.changed"),
+    FLOW_WAYPOINTS("flowField.waypoints"), // Short waypoint orders handed out along a flow field
+    FOLLOWER_ORDERS("march.followerOrders"), // Slot orders given to followers of a march leader
+    ROUTES_PLANNED("route.planned"),
+    ROUTES_FAILED("route.failed"), // Off-thread plans that found no path through the corridor
+    ROUTE_WAYPOINTS("route.waypoints"),
+    ROUTE_CACHE_HITS("route.cacheHits"),
+    STALL_REMEDIES("stall.remedies"), // Re-paths, detours and teleports given to stalled recruits
+    TICKETS_DENIED("tickets.denied"), // Chunk tickets refused because the budget was used up
+    BUDGET_EXHAUSTED("scheduler.budgetExhausted"); // Ticks where due missions were pushed to the next tick
+    
+    private final String key;
+    private final LongAdder adder = new LongAdder();
+    
+    PerfCounter(String key) {
+        this.key = key;
+    }
+    
+    public String getKey() {
+        return key;
+    }
+    
+    public void increment() {
+        if (PerfMonitor.isEnabled()) {
+            adder.increment();
+        }
+    }
+    
+    public void add(long amount) {
+        if (PerfMonitor.isEnabled()) {
+            adder.add(amount);
+        }
+    }
+    
+    public long get() {
+        return adder.sum();
+    }
+    
+    public void reset() {
+        adder.reset();
+    }
+}
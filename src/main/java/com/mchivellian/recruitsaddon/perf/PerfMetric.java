@@ -0,0 +1,53 @@
+package com.mchivellian.recruitsaddon.perf;
+
+/**
+ * Timed hot paths. Usage:
+ * <pre>
+ * long start = PerfMetric.MARCH_UPDATE.begin();
+ * ... work ...
+ * PerfMetric.MARCH_UPDATE.end(start);
+ * </pre>
+ * When metrics are disabled {@link #begin()} returns 0 and {@link #end(long)} does nothing.
+ */
+public enum PerfMetric {
+    SCHEDULER_TICK("scheduler.tick"),
+    MARCH_UPDATE("march.update"),
+    RAID_UPDATE("raid.update"),
+    ADVANCED_RAID_UPDATE("advancedRaid.update"),
+    RECRUIT_LOOKUP("registry.lookup"),
+    OWNERSHIP_SYNC("registry.ownershipSync"),
+    FORMATION_SOLVE("formation.solve"),
+    SURFACE_PROBE("surface.probe"),
+    SURFACE_SWEEP("surface.sweep"),
+    THREAT_SCAN("threat.scan"),
+    FLOW_FIELD_BUILD("flowField.build"),
+    FLOW_FIELD_SWEEP("flowField.sweep"),
+    ROUTE_SNAPSHOT("route.snapshot"),
+    PACKET_HANDLER("packet.handle"),
+    PERF_MONITOR("perf.monitor");
+    
+    private final String key;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    
+    PerfMetric(String key) {
+        this.key = key;
+    }
+    
+    public String getKey() {
+        return key;
+    }
+    
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+    
+    public long begin() {
+        return PerfMonitor.isEnabled() ? System.nanoTime() : 0;
+    }
+    
+    public void end(long start) {
+        if (start != 0) {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+}
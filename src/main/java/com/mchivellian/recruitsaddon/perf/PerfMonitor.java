@@ -0,0 +1,122 @@
+package com.mchivellian.recruitsaddon.perf;
+
+import com.mchivellian.recruitsaddon.ModMain;
+import com.mchivellian.recruitsaddon.config.RaidConfig;
+import com.mchivellian.recruitsaddon.mission.MissionScheduler;
+import com.mchivellian.recruitsaddon.mission.MissionType;
+import net.minecraftforge.event.server.ServerStartedEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Owns the enable switch for {@link PerfMetric} / {@link PerfCounter}, formats reports for
+ * {@code /recruits perf} and writes a periodic structured log line. The switch is off until
+ * the config has been read on server start, then refreshed once per second from a
+ * {@link MissionScheduler} task that also writes the log line.
+ */
+@Mod.EventBusSubscriber(modid = ModMain.MODID)
+public class PerfMonitor {
+    
+    private static volatile boolean enabled = false;
+    private static long lastLogTick = 0;
+    
+    public static boolean isEnabled() {
+        return enabled;
+    }
+    
+    @SubscribeEvent
+    public static void onServerStarted(ServerStartedEvent event) {
+        enabled = RaidConfig.ENABLE_PERF_METRICS.get();
+        lastLogTick = MissionScheduler.getCurrentTick();
+        MissionScheduler.schedule(MissionType.PERF_MONITOR, server -> {
+            refresh();
+            return false;
+        });
+    }
+    
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        enabled = false;
+    }
+    
+    /**
+     * Re-read the config and write the log line when it is due
+     */
+    private static void refresh() {
+        enabled = RaidConfig.ENABLE_PERF_METRICS.get();
+        
+        long now = MissionScheduler.getCurrentTick();
+        int logInterval = RaidConfig.PERF_LOG_INTERVAL_SECONDS.get();
+        if (!enabled || logInterval <= 0) {
+            lastLogTick = now;
+            return;
+        }
+        
+        if (now - lastLogTick >= logInterval * 20L) {
+            lastLogTick = now;
+            ModMain.LOGGER.info("recruitsaddon-perf {}", formatLogLine());
+        }
+    }
+    
+    /**
+     * One human-readable line per metric and counter, for chat output
+     */
+    public static List<String> formatReport() {
+        List<String> lines = new ArrayList<>();
+        for (PerfMetric metric : PerfMetric.values()) {
+            LatencyHistogram histogram = metric.getHistogram();
+            long count = histogram.getCount();
+            if (count == 0) {
+                lines.add(metric.getKey() + ": no samples");
+                continue;
+            }
+            lines.add(String.format("%s: n=%d avg=%s p50=%s p99=%s max=%s", metric.getKey(), count,
+                formatNanos(histogram.getTotalNanos() / count), formatNanos(histogram.getPercentile(50)),
+                formatNanos(histogram.getPercentile(99)), formatNanos(histogram.getMaxNanos())));
+        }
+        for (PerfCounter counter : PerfCounter.values()) {
+            lines.add(counter.getKey() + ": " + counter.get());
+        }
+        return lines;
+    }
+    
+    /**
+     * Single key=value line (microseconds) that log tooling can parse
+     */
+    public static String formatLogLine() {
+        StringBuilder line = new StringBuilder();
+        for (PerfMetric metric : PerfMetric.values()) {
+            LatencyHistogram histogram = metric.getHistogram();
+            line.append(metric.getKey())
+                .append(" n=").append(histogram.getCount())
+                .append(" p50us=").append(histogram.getPercentile(50) / 1000)
+                .append(" p99us=").append(histogram.getPercentile(99) / 1000)
+                .append(" maxus=").append(histogram.getMaxNanos() / 1000)
+                .append("; ");
+        }
+        for (PerfCounter counter : PerfCounter.values()) {
+            line.append(counter.getKey()).append('=').append(counter.get()).append("; ");
+        }
+        return line.toString().trim();
+    }
+    
+    public static void reset() {
+        for (PerfMetric metric : PerfMetric.values()) {
+            metric.getHistogram().reset();
+        }
+        for (PerfCounter counter : PerfCounter.values()) {
+            counter.reset();
+        }
+    }
+    
+    private static String formatNanos(long nanos) {
+        if (nanos >= 1_000_000) {
+            return String.format("%.2fms", nanos / 1_000_000.0);
+        }
+        return String.format("%.1fus", nanos / 1_000.0);
+    }
+}
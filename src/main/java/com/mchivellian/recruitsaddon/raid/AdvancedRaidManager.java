@@ -1,22 +1,42 @@
 package com.mchivellian.recruitsaddon.raid;
 
 import com.talhanation.recruits.entities.AbstractRecruitEntity;
+import com.mchivellian.recruitsaddon.ModMain;
 import com.mchivellian.recruitsaddon.config.RaidConfig;
+import com.mchivellian.recruitsaddon.integration.RecruitRegistry;
+import com.mchivellian.recruitsaddon.mission.MissionIndex;
+import com.mchivellian.recruitsaddon.mission.MissionNbt;
+import com.mchivellian.recruitsaddon.mission.MissionSavedData;
+import com.mchivellian.recruitsaddon.mission.MissionScheduler;
+import com.mchivellian.recruitsaddon.mission.MissionType;
+import com.mchivellian.recruitsaddon.mission.NotificationLimiter;
+import com.mchivellian.recruitsaddon.mission.RetaliationCoalescer;
+import com.mchivellian.recruitsaddon.mission.SquadState;
+import com.mchivellian.recruitsaddon.mission.StallDetector;
+import com.mchivellian.recruitsaddon.mission.TargetAllocator;
+import com.mchivellian.recruitsaddon.mission.ThreatScan;
+import com.mchivellian.recruitsaddon.mission.TickTimerWheel;
 import net.minecraft.core.BlockPos;
+import net.minecraft.nbt.CompoundTag;
 import net.minecraft.network.chat.Component;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
-import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.monster.Monster;
 import net.minecraft.world.entity.npc.Villager;
+import net.minecraft.world.level.Level;
 import net.minecraft.world.phys.AABB;
 import net.minecraft.world.phys.Vec3;
-import net.minecraftforge.event.TickEvent;
 import net.minecraftforge.event.entity.living.LivingDeathEvent;
 import net.minecraftforge.event.entity.living.LivingHurtEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.event.server.ServerStartedEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.server.ServerLifecycleHooks;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -33,13 +53,12 @@ public class AdvancedRaidManager {
     
     // Active raid tracking
     private static final Map<UUID, RaidMission> activeRaids = new ConcurrentHashMap<>();
-    private static final Map<UUID, Long> lastNotificationTime = new ConcurrentHashMap<>();
-    private static final Map<UUID, BlockPos> lastKnownPositions = new ConcurrentHashMap<>();
+    private static final MissionIndex<RaidMission> missionsByRecruit = new MissionIndex<>();
+    private static final MissionIndex<UUID> parkedByRecruit = new MissionIndex<>(); // Recruit -> id of its parked (saved, inactive) mission
     
     // Timing constants
-    private static final int STUCK_CHECK_INTERVAL = 100; // 5 seconds
-    private static final int NOTIFICATION_COOLDOWN = 60; // 3 seconds
-    private static final int POSITION_CHECK_DISTANCE = 2; // blocks
+    private static final int MARCH_RESUME_DELAY_TICKS = 100; // 5 seconds
+    private static final long STALE_MISSION_TICKS = 7L * 24 * 60 * 60 * 20; // Saved missions untouched for 7 days of uptime
     
     /**
      * Start a raid mission for a group of recruits
@@ -47,12 +66,8 @@ public class AdvancedRaidManager {
     public static void startRaidMission(List<AbstractRecruitEntity> recruits, BlockPos destination, String formation, ServerPlayer commander) {
         UUID missionId = UUID.randomUUID();
         RaidMission mission = new RaidMission(missionId, recruits, destination, formation, commander);
-        activeRaids.put(missionId, mission);
-        
-        // Initialize recruit tracking
-        for (AbstractRecruitEntity recruit : recruits) {
-            lastKnownPositions.put(recruit.getUUID(), recruit.blockPosition());
-        }
+        activate(mission);
+        persistMission(mission);
         
         notifyPlayer(commander, "§aRaid mission started with " + recruits.size() + " recruits marching to " + 
                     destination.getX() + ", " + destination.getY() + ", " + destination.getZ());
@@ -64,14 +79,24 @@ public class AdvancedRaidManager {
     public static void cancelRaidMission(UUID missionId) {
         RaidMission mission = activeRaids.remove(missionId);
         if (mission != null) {
+            deactivate(mission);
+            MissionSavedData.discard(ServerLifecycleHooks.getCurrentServer(), mission.dimension, MissionType.ADVANCED_RAID, missionId);
             // Reset all recruits to neutral and make them follow
-            for (AbstractRecruitEntity recruit : mission.recruits) {
-                if (recruit.isAlive()) {
-                    recruit.setState(0); // Neutral
-                    recruit.setFollowState(1); // Follow player
-                }
+            for (AbstractRecruitEntity recruit : resolveRecruits(mission)) {
+                recruit.setState(0); // Neutral
+                recruit.setFollowState(1); // Follow player
             }
-            notifyPlayer(mission.commander, "§cRaid mission cancelled. Recruits returning to you.");
+            notifyPlayer(mission.commander(), "§cRaid mission cancelled. Recruits returning to you.");
+        }
+    }
+    
+    /**
+     * Cancel the raid mission this recruit belongs to, if any
+     */
+    public static void cancelRaidMissionOf(UUID recruitId) {
+        RaidMission mission = missionsByRecruit.get(recruitId);
+        if (mission != null) {
+            cancelRaidMission(mission.id);
         }
     }
     
@@ -81,7 +106,7 @@ public class AdvancedRaidManager {
     public static void cancelAllRaidMissions(ServerPlayer player) {
         List<UUID> toRemove = new ArrayList<>();
         for (Map.Entry<UUID, RaidMission> entry : activeRaids.entrySet()) {
-            if (entry.getValue().commander.equals(player)) {
+            if (entry.getValue().commanderId.equals(player.getUUID())) {
                 toRemove.add(entry.getKey());
             }
         }
@@ -90,44 +115,71 @@ public class AdvancedRaidManager {
         }
     }
     
-    @SubscribeEvent
-    public static void onServerTick(TickEvent.ServerTickEvent event) {
-        if (event.phase != TickEvent.Phase.END) return;
-        
-        // Process all active raids
-        Iterator<Map.Entry<UUID, RaidMission>> iterator = activeRaids.entrySet().iterator();
-        while (iterator.hasNext()) {
-            Map.Entry<UUID, RaidMission> entry = iterator.next();
-            RaidMission mission = entry.getValue();
-            
-            // Remove completed or invalid missions
-            if (mission.isCompleted() || !mission.commander.isAlive()) {
-                iterator.remove();
-                continue;
-            }
-            
-            // Update mission state
-            updateRaidMission(mission);
+    /**
+     * Scheduled update for one raid mission (see {@link MissionScheduler})
+     * @return true once the mission is finished, cancelled or invalid
+     */
+    private static boolean tickRaidMission(UUID missionId, RaidMission mission) {
+        if (activeRaids.get(missionId) != mission) {
+            return true; // Cancelled
+        }
+        
+        // Commander logged out: park the mission, it stays saved and resumes when they log back in
+        ServerPlayer commander = mission.commander();
+        if (commander == null) {
+            activeRaids.remove(missionId, mission);
+            deactivate(mission);
+            persistMission(mission); // Stamp the logout time for stale mission cleanup
+            parkedByRecruit.add(mission.id, mission.recruitIds);
+            return true;
         }
+        
+        // Remove completed or invalid missions
+        if (mission.isCompleted() || !commander.isAlive()) {
+            activeRaids.remove(missionId, mission);
+            deactivate(mission);
+            MissionSavedData.discard(commander.getServer(), mission.dimension, MissionType.ADVANCED_RAID, missionId);
+            return true;
+        }
+        
+        // Update mission state
+        updateRaidMission(mission, commander);
+        return false;
     }
     
-    private static void updateRaidMission(RaidMission mission) {
-        List<AbstractRecruitEntity> aliveRecruits = new ArrayList<>();
+    private static void updateRaidMission(RaidMission mission, ServerPlayer commander) {
+        // Deaths are removed from the mission as they happen, so no members left means all have fallen
+        if (mission.recruitIds.isEmpty()) {
+            notifyPlayer(commander, "§4Raid mission failed - all recruits have been defeated!");
+            mission.completed = true;
+            return;
+        }
+        
+        List<AbstractRecruitEntity> aliveRecruits = resolveRecruits(mission);
+        if (aliveRecruits.isEmpty()) {
+            return; // Members are only unloaded: the mission waits until their chunks load again
+        }
+        
         List<AbstractRecruitEntity> atDestination = new ArrayList<>();
+        mission.squad.update(aliveRecruits, mission.destination.getX(), mission.destination.getY(), mission.destination.getZ(),
+            RaidConfig.getDestinationReachDistance());
         
         // Check recruit status
-        for (AbstractRecruitEntity recruit : mission.recruits) {
-            if (recruit.isAlive()) {
-                aliveRecruits.add(recruit);
-                
-                // Check if recruit reached destination
-                double distance = recruit.blockPosition().distSqr(mission.destination);
-                if (distance <= RaidConfig.getDestinationReachDistance() * RaidConfig.getDestinationReachDistance()) {
-                    atDestination.add(recruit);
-                }
-                
-                // Check if recruit is stuck
-                checkIfRecruitStuck(recruit, mission.commander);
+        for (int i = 0; i < aliveRecruits.size(); i++) {
+            AbstractRecruitEntity recruit = aliveRecruits.get(i);
+            // Check if recruit reached destination
+            if (mission.squad.hasArrived(i)) {
+                atDestination.add(recruit);
+            }
+        }
+        
+        // Free recruits (or the whole squad) that stopped getting closer while marching
+        if (mission.phase == RaidPhase.MARCHING && atDestination.isEmpty()) {
+            StallDetector.Remedy remedy = mission.stalls.update(aliveRecruits, mission.squad, mission.destination,
+                MissionScheduler.getCurrentTick(), recruit -> marchToDestination(mission, recruit));
+            if (remedy != StallDetector.Remedy.NONE && shouldNotify(commander, NotificationLimiter.Type.STUCK)) {
+                notifyPlayer(commander, "§eYour raid party appears to be stuck at " + (int) mission.squad.getBodyX() + ", "
+                    + (int) mission.squad.getBodyY() + ", " + (int) mission.squad.getBodyZ() + " - trying to free it");
             }
         }
         
@@ -135,6 +187,7 @@ public class AdvancedRaidManager {
         if (mission.phase == RaidPhase.MARCHING && !atDestination.isEmpty()) {
             // Some recruits reached destination - switch to raid phase
             mission.phase = RaidPhase.RAIDING;
+            persistMission(mission);
             
             // Switch recruits at destination to aggressive mode
             for (AbstractRecruitEntity recruit : atDestination) {
@@ -142,61 +195,39 @@ public class AdvancedRaidManager {
                 recruit.setFollowState(0); // Stop following, start attacking
             }
             
-            notifyPlayer(mission.commander, "§c" + atDestination.size() + " recruits have reached the raid destination and are engaging enemies!");
+            notifyPlayer(commander, "§c" + atDestination.size() + " recruits have reached the raid destination and are engaging enemies!");
         }
         
         // Handle raiding phase
         if (mission.phase == RaidPhase.RAIDING) {
             handleRaidingPhase(mission, atDestination);
         }
-        
-        // Check if mission should be completed
-        if (aliveRecruits.isEmpty()) {
-            notifyPlayer(mission.commander, "§4Raid mission failed - all recruits have been defeated!");
-            mission.completed = true;
-        }
     }
     
     private static void handleRaidingPhase(RaidMission mission, List<AbstractRecruitEntity> raiders) {
         if (raiders.isEmpty()) return;
         
-        // Find hostile entities near the destination
-        BlockPos dest = mission.destination;
-        AABB searchArea = new AABB(dest).inflate(15.0); // 15 block radius
-        
-        List<LivingEntity> hostiles = new ArrayList<>();
-        for (AbstractRecruitEntity recruit : raiders) {
-            List<Entity> nearbyEntities = recruit.level().getEntities(recruit, searchArea);
-            for (Entity entity : nearbyEntities) {
-                if (entity instanceof LivingEntity living && isValidRaidTarget(living, recruit)) {
-                    hostiles.add(living);
-                }
-            }
-        }
+        // One shared scan around the destination for the whole squad
+        AABB searchArea = new AABB(mission.destination).inflate(15.0); // 15 block radius
+        List<LivingEntity> hostiles = mission.threats.scan(raiders.get(0).level(), searchArea,
+            living -> isValidRaidTarget(living, mission.commanderId));
+        mission.targets.allocate(raiders, hostiles, RaidConfig.MAX_ATTACKERS_PER_TARGET.get());
         
         // Notify about combat if hostiles found
-        if (!hostiles.isEmpty() && shouldNotify(mission.commander, "combat")) {
-            notifyPlayer(mission.commander, "§eYour recruits are engaging " + hostiles.size() + " hostile entities!");
+        ServerPlayer commander = mission.commander();
+        if (!hostiles.isEmpty() && shouldNotify(commander, NotificationLimiter.Type.COMBAT)) {
+            notifyPlayer(commander, "§eYour recruits are engaging " + hostiles.size() + " hostile entities!");
         }
     }
     
-    private static boolean isValidRaidTarget(LivingEntity target, AbstractRecruitEntity recruit) {
+    private static boolean isValidRaidTarget(LivingEntity target, UUID commanderId) {
         // Don't attack other recruits or the player
-        if (target instanceof AbstractRecruitEntity || target.equals(recruit.getOwner())) {
-            return false;
-        }
-        
-        // Check entity blacklist
-        String entityType = target.getType().toString();
-        if (RaidConfig.isEntityBlacklisted(entityType)) {
+        if (!target.isAlive() || target instanceof AbstractRecruitEntity || target.getUUID().equals(commanderId)) {
             return false;
         }
         
-        // Check specific blacklist settings
-        if (target.getType().toString().contains("creeper") && RaidConfig.shouldAvoidCreepers()) {
-            return false;
-        }
-        if (target.getType().toString().contains("enderman") && RaidConfig.shouldAvoidEndermen()) {
+        // Check entity blacklist and specific blacklist settings
+        if (RaidTargetFilter.isExcluded(target.getType())) {
             return false;
         }
         if (target instanceof Villager && RaidConfig.shouldAvoidVillagers()) {
@@ -207,23 +238,12 @@ public class AdvancedRaidManager {
         return target instanceof Monster || target.getLastHurtByMob() != null;
     }
     
-    private static void checkIfRecruitStuck(AbstractRecruitEntity recruit, ServerPlayer commander) {
-        UUID recruitId = recruit.getUUID();
-        BlockPos currentPos = recruit.blockPosition();
-        BlockPos lastPos = lastKnownPositions.get(recruitId);
-        
-        if (lastPos != null) {
-            double distance = currentPos.distSqr(lastPos);
-            if (distance < POSITION_CHECK_DISTANCE * POSITION_CHECK_DISTANCE) {
-                // Recruit hasn't moved much - might be stuck
-                if (shouldNotify(commander, "stuck")) {
-                    notifyPlayer(commander, "§eA recruit appears to be stuck at " + 
-                               currentPos.getX() + ", " + currentPos.getY() + ", " + currentPos.getZ());
-                }
-            }
-        }
-        
-        lastKnownPositions.put(recruitId, currentPos);
+    /**
+     * The raid's march order: head for the destination
+     */
+    private static void marchToDestination(RaidMission mission, AbstractRecruitEntity recruit) {
+        recruit.setMovePos(mission.destination);
+        recruit.setShouldMovePos(true);
     }
     
     @SubscribeEvent
@@ -231,13 +251,43 @@ public class AdvancedRaidManager {
         if (!(event.getEntity() instanceof AbstractRecruitEntity recruit)) return;
         
         // Find the mission this recruit belongs to
-        for (RaidMission mission : activeRaids.values()) {
-            if (mission.recruits.contains(recruit)) {
-                if (RaidConfig.NOTIFY_ON_RECRUIT_DEATH.get()) {
-                    notifyPlayer(mission.commander, "§4A recruit has fallen in battle!");
-                }
-                break;
-            }
+        RaidMission mission = missionsByRecruit.get(recruit.getUUID());
+        if (mission == null) {
+            forgetParkedMember(recruit);
+            return;
+        }
+        
+        // Only deaths shrink the mission; unloaded members stay on it
+        List<UUID> fallen = List.of(recruit.getUUID());
+        missionsByRecruit.remove(mission, fallen);
+        mission.recruitIds.removeAll(fallen);
+        persistMission(mission);
+        
+        if (RaidConfig.NOTIFY_ON_RECRUIT_DEATH.get()) {
+            notifyPlayer(mission.commander(), "§4A recruit has fallen in battle!");
+        }
+    }
+    
+    /**
+     * Drop a fallen recruit from a parked (saved, inactive) mission, so it does not wait for it forever.
+     * Recruits of no mission stop at the index lookup; only a member's death rewrites a saved tag.
+     */
+    private static void forgetParkedMember(AbstractRecruitEntity recruit) {
+        UUID missionId = parkedByRecruit.get(recruit.getUUID());
+        if (missionId == null || recruit.getServer() == null) return;
+        
+        parkedByRecruit.remove(missionId, List.of(recruit.getUUID()));
+        for (ServerLevel level : recruit.getServer().getAllLevels()) {
+            MissionSavedData data = MissionSavedData.get(level);
+            CompoundTag saved = data.getAll(MissionType.ADVANCED_RAID).get(missionId);
+            if (saved == null) continue;
+            
+            List<UUID> recruitIds = MissionNbt.getUuids(saved, "Recruits");
+            recruitIds.remove(recruit.getUUID());
+            CompoundTag tag = saved.copy();
+            MissionNbt.putUuids(tag, "Recruits", recruitIds);
+            data.put(MissionType.ADVANCED_RAID, missionId, tag);
+            return;
         }
     }
     
@@ -245,52 +295,50 @@ public class AdvancedRaidManager {
     public static void onRecruitHurt(LivingHurtEvent event) {
         if (!(event.getEntity() instanceof AbstractRecruitEntity recruit)) return;
         
-        Entity attacker = event.getSource().getEntity();
-        if (attacker == null) return;
+        if (!(event.getSource().getEntity() instanceof LivingEntity attacker)) return;
         
         // Find the mission this recruit belongs to
-        for (RaidMission mission : activeRaids.values()) {
-            if (mission.recruits.contains(recruit) && mission.phase == RaidPhase.MARCHING) {
-                // Recruit under attack during march - coordinate group retaliation
-                if (shouldNotify(mission.commander, "combat")) {
-                    notifyPlayer(mission.commander, "§eYour recruits are under attack while marching! Group is retaliating!");
-                }
-                
-                // Make the entire group retaliate against the attacker
-                coordinateGroupRetaliation(mission, attacker);
-                break;
+        RaidMission mission = missionsByRecruit.get(recruit.getUUID());
+        if (mission != null && mission.phase == RaidPhase.MARCHING) {
+            // Recruit under attack during march - coordinate group retaliation
+            ServerPlayer commander = mission.commander();
+            if (shouldNotify(commander, NotificationLimiter.Type.COMBAT)) {
+                notifyPlayer(commander, "§eYour recruits are under attack while marching! Group is retaliating!");
             }
+            
+            // Make the group retaliate; attackers are batched so a volley triggers one targeting decision
+            mission.retaliation.report(attacker);
         }
     }
     
     /**
-     * Coordinate group retaliation during march - all recruits target attacker, then resume march
+     * Coordinate group retaliation during march - the squad is spread over the attackers of one
+     * retaliation window, then resumes the march
      */
-    private static void coordinateGroupRetaliation(RaidMission mission, Entity attacker) {
-        if (mission.phase != RaidPhase.MARCHING) return;
+    private static void coordinateGroupRetaliation(RaidMission mission, List<LivingEntity> attackers) {
+        if (activeRaids.get(mission.id) != mission || mission.phase != RaidPhase.MARCHING) return;
         
         // Store original march target for later resumption
         Vec3 originalTarget = Vec3.atCenterOf(mission.destination);
         
-        for (AbstractRecruitEntity recruit : mission.recruits) {
-            if (recruit.isAlive()) {
-                try {
-                    // Set attacker as target for retaliation (only if it's a living entity)
-                    if (attacker instanceof LivingEntity livingAttacker) {
-                        recruit.setTarget(livingAttacker);
-                        recruit.setAggressive(true);
-                        
-                        // Clear current movement to focus on combat
-                        recruit.setShouldMovePos(false);
-                        recruit.getNavigation().stop();
-                        
-                        // Start pathfinding to attacker
-                        recruit.getNavigation().moveTo(attacker, 1.5);
-                    }
-                    
-                } catch (Exception e) {
-                    // Individual recruit retaliation failed, continue with others
-                }
+        List<AbstractRecruitEntity> recruits = resolveRecruits(mission);
+        mission.targets.allocate(recruits, attackers, RaidConfig.MAX_ATTACKERS_PER_TARGET.get());
+        
+        for (AbstractRecruitEntity recruit : recruits) {
+            LivingEntity target = recruit.getTarget();
+            // Only recruits still on the march order need their navigation redirected
+            if (target == null || !recruit.getShouldMovePos()) continue;
+            try {
+                recruit.setAggressive(true);
+                
+                // Clear current movement to focus on combat
+                recruit.setShouldMovePos(false);
+                recruit.getNavigation().stop();
+                
+                // Start pathfinding to the assigned attacker
+                recruit.getNavigation().moveTo(target, 1.5);
+            } catch (Exception e) {
+                // Individual recruit retaliation failed, continue with others
             }
         }
         
@@ -299,75 +347,178 @@ public class AdvancedRaidManager {
     }
     
     /**
-     * Schedule march resumption after combat delay
+     * Schedule march resumption after combat delay.
+     * Runs on the server thread via the mission's timer group; a newer retaliation
+     * replaces the pending resumption instead of stacking another one.
      */
     private static void scheduleMarchResumption(RaidMission mission, Vec3 originalTarget) {
-        // Use server scheduler to resume march after 5 seconds (100 ticks)
-        try {
-            java.util.concurrent.CompletableFuture.runAsync(() -> {
-                try {
-                    Thread.sleep(5000); // 5 second delay
-                    
-                    // Check if mission is still active and in marching phase
-                    if (activeRaids.containsValue(mission) && mission.phase == RaidPhase.MARCHING) {
-                        resumeMarchAfterCombat(mission, originalTarget);
-                    }
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-            });
-        } catch (Exception e) {
-            // Scheduling failed, try immediate resumption
-            resumeMarchAfterCombat(mission, originalTarget);
+        if (mission.pendingResume != null) {
+            mission.pendingResume.cancel();
         }
+        
+        // Resume march after 5 seconds (100 ticks)
+        mission.pendingResume = mission.timers.schedule(MARCH_RESUME_DELAY_TICKS, () -> {
+            mission.pendingResume = null;
+            
+            // Check if mission is still active and in marching phase
+            if (activeRaids.get(mission.id) == mission && mission.phase == RaidPhase.MARCHING) {
+                resumeMarchAfterCombat(mission, originalTarget);
+            }
+        });
     }
     
     /**
      * Resume march after combat delay
      */
     private static void resumeMarchAfterCombat(RaidMission mission, Vec3 originalTarget) {
-        for (AbstractRecruitEntity recruit : mission.recruits) {
-            if (recruit.isAlive()) {
-                try {
-                    // Clear combat targets and return to neutral march state
-                    recruit.setTarget(null);
-                    recruit.setAggressive(false);
-                    recruit.setState(0); // Neutral state for marching
-                    
-                    // Resume march to original destination
-                    BlockPos targetPos = new BlockPos((int) originalTarget.x, (int) originalTarget.y, (int) originalTarget.z);
-                    recruit.setMovePos(targetPos);
-                    recruit.setShouldMovePos(true);
-                    recruit.setShouldFollow(false);
-                    recruit.setShouldHoldPos(false);
-                    
-                    // Start pathfinding to resume march
-                    recruit.getNavigation().moveTo(originalTarget.x, originalTarget.y, originalTarget.z, 1.0);
-                    
-                } catch (Exception e) {
-                    // Individual recruit resumption failed, continue with others
-                }
+        mission.targets.clear();
+        mission.stalls.clear(); // Fighting is not a stall
+        for (AbstractRecruitEntity recruit : resolveRecruits(mission)) {
+            try {
+                // Clear combat targets and return to neutral march state
+                recruit.setTarget(null);
+                recruit.setAggressive(false);
+                recruit.setState(0); // Neutral state for marching
+                
+                // Resume march to original destination
+                BlockPos targetPos = new BlockPos((int) originalTarget.x, (int) originalTarget.y, (int) originalTarget.z);
+                recruit.setMovePos(targetPos);
+                recruit.setShouldMovePos(true);
+                recruit.setShouldFollow(false);
+                recruit.setShouldHoldPos(false);
+                
+                // Start pathfinding to resume march
+                recruit.getNavigation().moveTo(originalTarget.x, originalTarget.y, originalTarget.z, 1.0);
+                
+            } catch (Exception e) {
+                // Individual recruit resumption failed, continue with others
             }
         }
         
         // Notify player that march has resumed
-        if (shouldNotify(mission.commander, "march_resume")) {
-            notifyPlayer(mission.commander, "§aYour recruits have dealt with the threat and resumed marching!");
+        ServerPlayer commander = mission.commander();
+        if (shouldNotify(commander, NotificationLimiter.Type.MARCH_RESUME)) {
+            notifyPlayer(commander, "§aYour recruits have dealt with the threat and resumed marching!");
         }
     }
     
-    private static boolean shouldNotify(ServerPlayer player, String type) {
-        if (!RaidConfig.ENABLE_RAID_NOTIFICATIONS.get()) return false;
-        
-        long currentTime = System.currentTimeMillis();
-        UUID key = UUID.nameUUIDFromBytes((player.getUUID() + "_" + type).getBytes());
-        Long lastTime = lastNotificationTime.get(key);
+    /**
+     * Resume this commander's saved missions (after a restart or a logout)
+     */
+    @SubscribeEvent
+    public static void onPlayerLoggedIn(PlayerEvent.PlayerLoggedInEvent event) {
+        if (!(event.getEntity() instanceof ServerPlayer commander)) return;
         
-        if (lastTime == null || currentTime - lastTime > NOTIFICATION_COOLDOWN * 1000) {
-            lastNotificationTime.put(key, currentTime);
-            return true;
+        for (ServerLevel level : commander.getServer().getAllLevels()) {
+            for (Map.Entry<UUID, CompoundTag> entry : MissionSavedData.get(level).getAll(MissionType.ADVANCED_RAID).entrySet()) {
+                UUID missionId = entry.getKey();
+                if (activeRaids.containsKey(missionId) || !commander.getUUID().equals(MissionNbt.getUuid(entry.getValue(), "Commander"))) {
+                    continue;
+                }
+                
+                RaidMission mission = RaidMission.load(missionId, level.dimension(), entry.getValue());
+                activate(mission);
+                persistMission(mission);
+                notifyPlayer(commander, "§aRaid mission resumed with " + mission.recruitIds.size() + " recruits.");
+            }
+        }
+    }
+    
+    /**
+     * Drop cached commander references; the missions park on their next update
+     */
+    @SubscribeEvent
+    public static void onPlayerLoggedOut(PlayerEvent.PlayerLoggedOutEvent event) {
+        UUID playerId = event.getEntity().getUUID();
+        for (RaidMission mission : activeRaids.values()) {
+            if (mission.commanderId.equals(playerId)) {
+                mission.cachedCommander = null;
+            }
         }
-        return false;
+    }
+    
+    /**
+     * Discard saved missions whose commander has not been online for a long time, and index the
+     * members of the others, which stay parked until their commander logs in
+     */
+    @SubscribeEvent
+    public static void onServerStarted(ServerStartedEvent event) {
+        long now = event.getServer().overworld().getGameTime();
+        int discarded = 0;
+        for (ServerLevel level : event.getServer().getAllLevels()) {
+            MissionSavedData data = MissionSavedData.get(level);
+            List<UUID> stale = new ArrayList<>();
+            for (Map.Entry<UUID, CompoundTag> entry : data.getAll(MissionType.ADVANCED_RAID).entrySet()) {
+                CompoundTag tag = entry.getValue();
+                if (tag.contains("SavedAt") && now - tag.getLong("SavedAt") > STALE_MISSION_TICKS) {
+                    stale.add(entry.getKey());
+                }
+            }
+            for (UUID missionId : stale) {
+                data.remove(MissionType.ADVANCED_RAID, missionId);
+            }
+            discarded += stale.size();
+            for (Map.Entry<UUID, CompoundTag> entry : data.getAll(MissionType.ADVANCED_RAID).entrySet()) {
+                parkedByRecruit.add(entry.getKey(), MissionNbt.getUuids(entry.getValue(), "Recruits"));
+            }
+        }
+        if (discarded > 0) {
+            ModMain.LOGGER.info("Discarded {} stale saved raid missions", discarded);
+        }
+    }
+    
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        activeRaids.clear();
+        missionsByRecruit.clear();
+        parkedByRecruit.clear();
+    }
+    
+    /**
+     * Make the mission active: track it, index its recruits and schedule its updates
+     */
+    private static void activate(RaidMission mission) {
+        activeRaids.put(mission.id, mission);
+        parkedByRecruit.remove(mission.id, mission.recruitIds);
+        missionsByRecruit.add(mission, mission.recruitIds);
+        MissionScheduler.schedule(MissionType.ADVANCED_RAID, server -> tickRaidMission(mission.id, mission), server -> {
+            // An update threw and the scheduler dropped the mission: forget it everywhere
+            if (activeRaids.remove(mission.id, mission)) {
+                MissionSavedData.discard(server, mission.dimension, MissionType.ADVANCED_RAID, mission.id);
+            }
+            deactivate(mission);
+        });
+    }
+    
+    /**
+     * Undo {@link #activate} after the mission was removed from the active map
+     */
+    private static void deactivate(RaidMission mission) {
+        missionsByRecruit.remove(mission, mission.recruitIds);
+        mission.timers.cancelAll();
+    }
+    
+    /**
+     * Save the mission's current state (called on start and on phase change)
+     */
+    private static void persistMission(RaidMission mission) {
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        MissionSavedData.store(server, mission.dimension, MissionType.ADVANCED_RAID, mission.id, mission.save(server.overworld().getGameTime()));
+    }
+    
+    /**
+     * Resolve the mission's loaded, living recruits through the recruit registry
+     */
+    private static List<AbstractRecruitEntity> resolveRecruits(RaidMission mission) {
+        ServerLevel level = ServerLifecycleHooks.getCurrentServer().getLevel(mission.dimension);
+        if (level == null) {
+            return new ArrayList<>();
+        }
+        return RecruitRegistry.resolveAlive(level, mission.recruitIds);
+    }
+    
+    private static boolean shouldNotify(ServerPlayer player, NotificationLimiter.Type type) {
+        return RaidConfig.ENABLE_RAID_NOTIFICATIONS.get() && NotificationLimiter.tryAcquire(player, type);
     }
     
     private static void notifyPlayer(ServerPlayer player, String message) {
@@ -377,29 +528,79 @@ public class AdvancedRaidManager {
     }
     
     /**
-     * Represents an active raid mission
+     * Represents an active raid mission.
+     * Recruits and commander are kept as UUIDs; entities are resolved when needed so a
+     * mission never keeps unloaded recruits or logged-out players alive.
      */
     private static class RaidMission {
         final UUID id;
-        final List<AbstractRecruitEntity> recruits;
+        final List<UUID> recruitIds;
+        final ResourceKey<Level> dimension;
         final BlockPos destination;
         final String formation;
-        final ServerPlayer commander;
+        final UUID commanderId;
+        final TickTimerWheel.TimerGroup timers = MissionScheduler.newTimerGroup();
+        final SquadState squad = new SquadState();
+        final ThreatScan threats = new ThreatScan();
+        final TargetAllocator targets = new TargetAllocator();
+        final RetaliationCoalescer retaliation = new RetaliationCoalescer(timers, attackers -> coordinateGroupRetaliation(this, attackers));
+        final StallDetector stalls = new StallDetector();
+        ServerPlayer cachedCommander;
+        TickTimerWheel.TimerHandle pendingResume;
         RaidPhase phase;
         boolean completed;
         
         RaidMission(UUID id, List<AbstractRecruitEntity> recruits, BlockPos destination, String formation, ServerPlayer commander) {
+            this(id, new ArrayList<>(recruits.size()), commander.level().dimension(), destination, formation, commander.getUUID(), RaidPhase.MARCHING);
+            this.cachedCommander = commander;
+            for (AbstractRecruitEntity recruit : recruits) {
+                this.recruitIds.add(recruit.getUUID());
+            }
+        }
+        
+        private RaidMission(UUID id, List<UUID> recruitIds, ResourceKey<Level> dimension, BlockPos destination, String formation,
+                            UUID commanderId, RaidPhase phase) {
             this.id = id;
-            this.recruits = new ArrayList<>(recruits);
+            this.recruitIds = recruitIds;
+            this.dimension = dimension;
             this.destination = destination;
             this.formation = formation;
-            this.commander = commander;
-            this.phase = RaidPhase.MARCHING;
+            this.commanderId = commanderId;
+            this.phase = phase;
             this.completed = false;
         }
         
+        /**
+         * The online commander, or null. The cached player is re-resolved once it was removed (logout, respawn).
+         */
+        ServerPlayer commander() {
+            ServerPlayer player = cachedCommander;
+            if (player == null || player.isRemoved()) {
+                MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+                player = server != null ? server.getPlayerList().getPlayer(commanderId) : null;
+                cachedCommander = player;
+            }
+            return player;
+        }
+        
+        CompoundTag save(long gameTime) {
+            CompoundTag tag = new CompoundTag();
+            MissionNbt.putUuids(tag, "Recruits", recruitIds);
+            MissionNbt.putUuid(tag, "Commander", commanderId);
+            tag.putLong("Destination", destination.asLong());
+            tag.putString("Formation", formation != null ? formation : "");
+            tag.putByte("Phase", (byte) phase.ordinal());
+            tag.putLong("SavedAt", gameTime);
+            return tag;
+        }
+        
+        static RaidMission load(UUID id, ResourceKey<Level> dimension, CompoundTag tag) {
+            return new RaidMission(id, MissionNbt.getUuids(tag, "Recruits"), dimension, BlockPos.of(tag.getLong("Destination")),
+                tag.getString("Formation"), MissionNbt.getUuid(tag, "Commander"), MissionNbt.getEnum(tag, "Phase", RaidPhase.values(), RaidPhase.MARCHING));
+        }
+        
         boolean isCompleted() {
-            return completed || recruits.stream().noneMatch(AbstractRecruitEntity::isAlive);
+            return completed;
         }
     }
     
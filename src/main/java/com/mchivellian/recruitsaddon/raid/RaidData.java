@@ -1,6 +1,24 @@
 package com.mchivellian.recruitsaddon.raid;
 
+import com.mchivellian.recruitsaddon.mission.ChunkTickets;
+import com.mchivellian.recruitsaddon.mission.MissionNbt;
+import com.mchivellian.recruitsaddon.mission.MissionSavedData;
+import com.mchivellian.recruitsaddon.mission.MissionScheduler;
+import com.mchivellian.recruitsaddon.mission.OrderTracker;
+import com.mchivellian.recruitsaddon.mission.RetaliationCoalescer;
+import com.mchivellian.recruitsaddon.mission.SquadState;
+import com.mchivellian.recruitsaddon.mission.StallDetector;
+import com.mchivellian.recruitsaddon.mission.TargetAllocator;
+import com.mchivellian.recruitsaddon.mission.ThreatScan;
+import com.mchivellian.recruitsaddon.mission.TickTimerWheel;
+import com.mchivellian.recruitsaddon.pathing.FlowSteering;
+import com.mchivellian.recruitsaddon.pathing.RouteFollower;
 import net.minecraft.core.BlockPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
 
 import java.util.List;
 import java.util.UUID;
@@ -15,25 +33,42 @@ public class RaidData {
     }
     
     private final UUID playerUuid;
+    private final ResourceKey<Level> dimension;
     private final List<UUID> recruitIds;
     private final BlockPos targetPos;
     private final int raidType; // 0 = raid, 1 = assault
     private RaidPhase phase;
-    private int lootingTime;
+    private final TickTimerWheel.TimerGroup timers = MissionScheduler.newTimerGroup();
+    private final SquadState squad = new SquadState();
+    private final ChunkTickets.Lease tickets = new ChunkTickets.Lease();
+    private final OrderTracker orders = new OrderTracker();
+    private final FlowSteering steering = new FlowSteering();
+    private final RouteFollower route = new RouteFollower();
+    private final StallDetector stalls = new StallDetector();
+    private final ThreatScan threats = new ThreatScan();
+    private final TargetAllocator targets = new TargetAllocator();
+    private final RetaliationCoalescer retaliation = new RetaliationCoalescer(timers, attackers -> RaidManager.retaliate(this, attackers));
+    private boolean resuming; // Restored from disk and not yet seen its recruits
+    private long resumeDeadline = -1; // Scheduler tick until which a restored raid waits for its recruits, once their chunk loaded
+    private long squadChunk = ChunkPos.INVALID_CHUNK_POS; // Chunk of the warband's main body, saved for restoring
     
-    public RaidData(UUID playerUuid, List<UUID> recruitIds, BlockPos targetPos, int raidType, RaidPhase phase) {
+    public RaidData(UUID playerUuid, ResourceKey<Level> dimension, List<UUID> recruitIds, BlockPos targetPos, int raidType, RaidPhase phase) {
         this.playerUuid = playerUuid;
+        this.dimension = dimension;
         this.recruitIds = recruitIds;
         this.targetPos = targetPos;
         this.raidType = raidType;
         this.phase = phase;
-        this.lootingTime = 0;
     }
     
     public UUID getPlayerUuid() {
         return playerUuid;
     }
     
+    public ResourceKey<Level> getDimension() {
+        return dimension;
+    }
+    
     public List<UUID> getRecruitIds() {
         return recruitIds;
     }
@@ -54,12 +89,142 @@ public class RaidData {
         this.phase = phase;
     }
     
-    public int getLootingTime() {
-        return lootingTime;
+    /**
+     * Delayed actions (phase timeouts) owned by this raid; cancelled when the raid ends
+     */
+    public TickTimerWheel.TimerGroup getTimers() {
+        return timers;
+    }
+    
+    /**
+     * Reusable position snapshot of the raiding recruits
+     */
+    public SquadState getSquad() {
+        return squad;
+    }
+    
+    /**
+     * Chunk tickets keeping a far-away warband loaded
+     */
+    public ChunkTickets.Lease getTickets() {
+        return tickets;
+    }
+    
+    /**
+     * Flow-field steering of the warband towards the target
+     */
+    public FlowSteering getSteering() {
+        return steering;
+    }
+    
+    /**
+     * Planned route of a far-away destination
+     */
+    public RouteFollower getRoute() {
+        return route;
+    }
+    
+    /**
+     * Stall detection of the warband on its way to the target
+     */
+    public StallDetector getStalls() {
+        return stalls;
+    }
+    
+    /**
+     * Whether this raid was restored from disk and has not yet seen its recruits
+     */
+    public boolean isResuming() {
+        return resuming;
+    }
+    
+    /**
+     * Whether a restored raid should keep waiting for its recruits: as long as their saved
+     * chunk has not loaded, then for a grace period while their entities load in
+     */
+    public boolean isAwaitingResume(ServerLevel level, long currentTick) {
+        if (!resuming) return false;
+        if (resumeDeadline < 0) {
+            if (!tickets.isRestoredChunkLoaded(level)) return true;
+            resumeDeadline = currentTick + MissionSavedData.RESUME_GRACE_TICKS;
+        }
+        return currentTick < resumeDeadline;
+    }
+    
+    /**
+     * Mark the raid as restored from disk; the warband's saved chunk is ticketed once the commander is online
+     */
+    public void startResume() {
+        resuming = true;
+        resumeDeadline = -1;
+        if (squadChunk != ChunkPos.INVALID_CHUNK_POS) {
+            tickets.restore(dimension, squadChunk);
+        }
+    }
+    
+    public void finishResume() {
+        resuming = false;
+        resumeDeadline = -1;
+    }
+    
+    /**
+     * Remember the chunk of the warband's main body
+     * @return true if it changed, i.e. the raid should be saved again
+     */
+    public boolean trackSquadChunk(SquadState squad) {
+        long chunk = ChunkPos.asLong((int) Math.floor(squad.getBodyX()) >> 4, (int) Math.floor(squad.getBodyZ()) >> 4);
+        if (squad.size() == 0 || chunk == squadChunk) return false;
+        squadChunk = chunk;
+        return true;
+    }
+    
+    /**
+     * Last movement order sent to each recruit of this raid
+     */
+    public OrderTracker getOrders() {
+        return orders;
+    }
+    
+    /**
+     * Shared hostile scan around the raid target
+     */
+    public ThreatScan getThreats() {
+        return threats;
+    }
+    
+    /**
+     * Recruit -> enemy assignments while engaging
+     */
+    public TargetAllocator getTargets() {
+        return targets;
+    }
+    
+    /**
+     * Batches attackers of the warband into one retaliation order per window
+     */
+    public RetaliationCoalescer getRetaliation() {
+        return retaliation;
+    }
+    
+    public CompoundTag save() {
+        CompoundTag tag = new CompoundTag();
+        MissionNbt.putUuids(tag, "Recruits", recruitIds);
+        tag.putLong("Target", targetPos.asLong());
+        tag.putByte("Type", (byte) raidType);
+        tag.putByte("Phase", (byte) phase.ordinal());
+        if (squadChunk != ChunkPos.INVALID_CHUNK_POS) {
+            tag.putLong("SquadChunk", squadChunk);
+        }
+        return tag;
     }
     
-    public void incrementLootingTime() {
-        this.lootingTime++;
+    public static RaidData load(UUID playerUuid, ResourceKey<Level> dimension, CompoundTag tag) {
+        RaidData raidData = new RaidData(playerUuid, dimension, MissionNbt.getUuids(tag, "Recruits"), BlockPos.of(tag.getLong("Target")),
+            tag.getByte("Type"), MissionNbt.getEnum(tag, "Phase", RaidPhase.values(), RaidPhase.MOVING_TO_TARGET));
+        if (tag.contains("SquadChunk")) {
+            raidData.squadChunk = tag.getLong("SquadChunk");
+        }
+        return raidData;
     }
     
     public String getRaidTypeName() {
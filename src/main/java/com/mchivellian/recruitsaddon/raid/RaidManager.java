@@ -3,7 +3,20 @@ package com.mchivellian.recruitsaddon.raid;
 import com.talhanation.recruits.entities.AbstractRecruitEntity;
 import com.mchivellian.recruitsaddon.ModMain;
 import com.mchivellian.recruitsaddon.config.RaidConfig;
+import com.mchivellian.recruitsaddon.integration.RecruitRegistry;
+import com.mchivellian.recruitsaddon.integration.SurfaceCache;
+import com.mchivellian.recruitsaddon.mission.MissionIndex;
+import com.mchivellian.recruitsaddon.mission.MissionSavedData;
+import com.mchivellian.recruitsaddon.mission.MissionScheduler;
+import com.mchivellian.recruitsaddon.mission.MissionType;
+import com.mchivellian.recruitsaddon.mission.NotificationLimiter;
+import com.mchivellian.recruitsaddon.mission.SquadMovement;
+import com.mchivellian.recruitsaddon.mission.SquadState;
+import com.mchivellian.recruitsaddon.mission.StallDetector;
+import com.mchivellian.recruitsaddon.pathing.FlowSteering;
+import com.mchivellian.recruitsaddon.pathing.RouteFollower;
 import net.minecraft.core.BlockPos;
+import net.minecraft.nbt.CompoundTag;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.Entity;
@@ -12,29 +25,22 @@ import net.minecraft.world.entity.monster.Monster;
 import net.minecraft.world.entity.npc.Villager;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.phys.AABB;
-import net.minecraftforge.event.TickEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 @Mod.EventBusSubscriber(modid = ModMain.MODID)
 public class RaidManager {
     
-    /**
-     * Cool-down tracker so the player does not get chat-spam when recruits are attacked
-     */
-    private static final Map<UUID, Long> LAST_ATTACK_MESSAGE = new ConcurrentHashMap<>();
-    private static final int ATTACK_MESSAGE_COOLDOWN_TICKS = 100; // 5 seconds
-    
     private static final Map<UUID, RaidData> activeRaids = new ConcurrentHashMap<>();
-    private static final double RECRUIT_SEARCH_RADIUS = 500; // Fixed: Double.MAX_VALUE breaks entity search
+    private static final MissionIndex<RaidData> raidsByRecruit = new MissionIndex<>();
     private static final double TARGET_ARRIVAL_RADIUS = 8.0;
     private static final double COMBAT_ENGAGEMENT_RADIUS = 16.0;
     private static final double LOOT_SEARCH_RADIUS = 12.0;
-    private static final int RAID_TICK_INTERVAL = 20; // Check every second
-    private static int tickCounter = 0;
+    private static final int LOOTING_DURATION_TICKS = 100; // 5 seconds
     
     public static boolean startRaid(ServerPlayer player, BlockPos targetPos, int groupId, int raidType) {
         if (player.level() instanceof ServerLevel serverLevel) {
@@ -51,19 +57,35 @@ public class RaidManager {
             List<UUID> recruitIds = new ArrayList<>();
             for (AbstractRecruitEntity recruit : groupRecruits) {
                 recruitIds.add(recruit.getUUID());
-                // Set recruits to move to target position
-                setRecruitRaidTarget(recruit, targetPos, raidType);
             }
             
             RaidData raidData = new RaidData(
                 player.getUUID(),
+                serverLevel.dimension(),
                 recruitIds,
                 targetPos,
                 raidType,
                 RaidData.RaidPhase.MOVING_TO_TARGET
             );
             
+            // Set recruits to move to target position
+            for (AbstractRecruitEntity recruit : groupRecruits) {
+                issueRaidOrder(raidData, recruit, targetPos, raidType);
+            }
+            
+            // Swap the direct orders for route / flow-field waypoints before the recruits start their long searches
+            raidData.getSquad().update(groupRecruits, targetPos.getX(), targetPos.getY(), targetPos.getZ(), TARGET_ARRIVAL_RADIUS);
+            raidData.getRoute().prepare(serverLevel, raidData.getSquad(), targetPos);
+            raidData.getSteering().prepare(serverLevel, targetPos, groupRecruits.size());
+            for (AbstractRecruitEntity recruit : groupRecruits) {
+                if (raidData.getRoute().steer(recruit, r -> issueRaidOrder(raidData, r, targetPos, raidType))) continue;
+                raidData.getSteering().steer(recruit, r -> issueRaidOrder(raidData, r, targetPos, raidType));
+            }
+            
             activeRaids.put(player.getUUID(), raidData);
+            raidsByRecruit.add(raidData, recruitIds);
+            scheduleRaid(player.getUUID(), raidData);
+            persistRaid(raidData);
             
             String raidTypeName = (raidType == 0) ? "raid" : "assault";
             player.sendSystemMessage(net.minecraft.network.chat.Component.literal(
@@ -78,6 +100,10 @@ public class RaidManager {
     public static void stopRaid(ServerPlayer player) {
         RaidData raidData = activeRaids.remove(player.getUUID());
         if (raidData != null) {
+            raidsByRecruit.remove(raidData, raidData.getRecruitIds());
+            raidData.getTimers().cancelAll();
+            raidData.getTickets().releaseAll();
+            MissionSavedData.discard(player.getServer(), raidData.getDimension(), MissionType.RAID, player.getUUID());
             // Reset recruit behavior
             if (player.level() instanceof ServerLevel serverLevel) {
                 for (UUID recruitId : raidData.getRecruitIds()) {
@@ -92,19 +118,11 @@ public class RaidManager {
     }
     
     private static List<AbstractRecruitEntity> findGroupRecruits(ServerPlayer player, ServerLevel level, int groupId) {
-        AABB searchArea = new AABB(player.blockPosition()).inflate(RECRUIT_SEARCH_RADIUS);
-        List<AbstractRecruitEntity> allRecruits = level.getEntitiesOfClass(AbstractRecruitEntity.class, searchArea);
-        
-        List<AbstractRecruitEntity> groupRecruits = new ArrayList<>();
-        for (AbstractRecruitEntity recruit : allRecruits) {
-            if (recruit.getOwnerUUID() != null && 
-                recruit.getOwnerUUID().equals(player.getUUID()) && 
-                (groupId == -1 || recruit.getGroup() == groupId)) {
-                groupRecruits.add(recruit);
-            }
+        // Owner/group index: O(group size), and finds every loaded recruit regardless of distance
+        if (groupId == -1) {
+            return RecruitRegistry.getOwned(level, player.getUUID());
         }
-        
-        return groupRecruits;
+        return RecruitRegistry.getOwnedInGroup(level, player.getUUID(), groupId);
     }
     
     private static void setRecruitRaidTarget(AbstractRecruitEntity recruit, BlockPos targetPos, int raidType) {
@@ -113,8 +131,7 @@ public class RaidManager {
         recruit.setFollowState(0); // Set to wander/free state
         
         // Use FormationUtils to find a safe position on the surface
-        BlockPos safePos = com.talhanation.recruits.util.FormationUtils.getPositionOrSurface(
-            recruit.getCommandSenderWorld(), targetPos);
+        BlockPos safePos = SurfaceCache.getPositionOrSurface(recruit.getCommandSenderWorld(), targetPos);
         
         // Set recruit to move to target position using proper movement system
         recruit.setMovePos(safePos);
@@ -128,18 +145,19 @@ public class RaidManager {
             recruit.setAggressive(true);
         }
         
-        ModMain.LOGGER.info("Set raid target for recruit {} to safe position {}", recruit.getUUID(), safePos);
+        ModMain.LOGGER.debug("Set raid target for recruit {} to safe position {}", recruit.getUUID(), safePos);
+    }
+    
+    /**
+     * Send a raid movement order and remember it, so unchanged orders are not re-sent every update
+     */
+    private static void issueRaidOrder(RaidData raidData, AbstractRecruitEntity recruit, BlockPos targetPos, int raidType) {
+        setRecruitRaidTarget(recruit, targetPos, raidType);
+        raidData.getOrders().recordOrder(recruit, targetPos, MissionScheduler.getCurrentTick());
     }
     
     private static AbstractRecruitEntity findRecruitById(ServerLevel level, UUID recruitId) {
-        for (AbstractRecruitEntity recruit : level.getEntitiesOfClass(AbstractRecruitEntity.class, 
-                new AABB(level.getWorldBorder().getMinX(), level.getMinBuildHeight(), level.getWorldBorder().getMinZ(),
-                        level.getWorldBorder().getMaxX(), level.getMaxBuildHeight(), level.getWorldBorder().getMaxZ()))) {
-            if (recruit.getUUID().equals(recruitId)) {
-                return recruit;
-            }
-        }
-        return null;
+        return RecruitRegistry.get(level, recruitId);
     }
     
     private static void resetRecruitBehavior(AbstractRecruitEntity recruit) {
@@ -150,60 +168,105 @@ public class RaidManager {
         recruit.clearMovePos();
         recruit.setFollowState(0); // Reset to wander state
         
-        ModMain.LOGGER.info("Reset behavior for recruit {}", recruit.getUUID());
+        ModMain.LOGGER.debug("Reset behavior for recruit {}", recruit.getUUID());
     }
     
+    /**
+     * Resume raids that were in progress when the server last stopped
+     */
     @SubscribeEvent
-    public static void onServerTick(TickEvent.ServerTickEvent event) {
-        if (event.phase != TickEvent.Phase.END) return;
-        
-        tickCounter++;
-        if (tickCounter < RAID_TICK_INTERVAL) return;
-        tickCounter = 0;
-        
-        if (activeRaids.isEmpty()) return;
-        
-        Iterator<Map.Entry<UUID, RaidData>> iterator = activeRaids.entrySet().iterator();
-        while (iterator.hasNext()) {
-            Map.Entry<UUID, RaidData> entry = iterator.next();
-            UUID playerUuid = entry.getKey();
-            RaidData raidData = entry.getValue();
-            
-            // Find the player
-            ServerPlayer player = null;
-            for (ServerLevel level : event.getServer().getAllLevels()) {
-                Player foundPlayer = level.getPlayerByUUID(playerUuid);
-                if (foundPlayer instanceof ServerPlayer) {
-                    player = (ServerPlayer) foundPlayer;
-                    break;
-                }
+    public static void onServerStarted(net.minecraftforge.event.server.ServerStartedEvent event) {
+        for (ServerLevel level : event.getServer().getAllLevels()) {
+            for (Map.Entry<UUID, CompoundTag> entry : MissionSavedData.get(level).getAll(MissionType.RAID).entrySet()) {
+                RaidData raidData = RaidData.load(entry.getKey(), level.dimension(), entry.getValue());
+                raidData.startResume(); // Waits for the commander, then tickets the warband's saved chunk
+                activeRaids.put(entry.getKey(), raidData);
+                raidsByRecruit.add(raidData, raidData.getRecruitIds());
+                scheduleRaid(entry.getKey(), raidData);
             }
-            
-            if (player == null) {
-                iterator.remove();
-                continue;
-            }
-            
-            updateRaidProgress(player, raidData, iterator);
+        }
+        if (!activeRaids.isEmpty()) {
+            ModMain.LOGGER.info("Resumed {} saved raids", activeRaids.size());
         }
     }
     
-    private static void updateRaidProgress(ServerPlayer player, RaidData raidData, Iterator<Map.Entry<UUID, RaidData>> iterator) {
-        ServerLevel level = (ServerLevel) player.level();
-        List<AbstractRecruitEntity> activeRecruits = new ArrayList<>();
+    @SubscribeEvent
+    public static void onServerStopped(net.minecraftforge.event.server.ServerStoppedEvent event) {
+        activeRaids.clear();
+        raidsByRecruit.clear();
+    }
+    
+    private static void scheduleRaid(UUID playerUuid, RaidData raidData) {
+        MissionScheduler.schedule(MissionType.RAID, server -> updateRaid(server, playerUuid, raidData),
+            server -> endRaid(server, playerUuid, raidData)); // An update threw: drop the raid cleanly
+    }
+    
+    /**
+     * Remove a finished or failed raid from the active map and recruit index, and release its timers,
+     * tickets and saved state
+     */
+    private static void endRaid(net.minecraft.server.MinecraftServer server, UUID playerUuid, RaidData raidData) {
+        raidsByRecruit.remove(raidData, raidData.getRecruitIds());
+        raidData.getTimers().cancelAll();
+        raidData.getTickets().releaseAll();
+        if (activeRaids.remove(playerUuid, raidData)) {
+            MissionSavedData.discard(server, raidData.getDimension(), MissionType.RAID, playerUuid);
+        }
+    }
+    
+    /**
+     * Save the raid's current state (called on start and on every phase change)
+     */
+    private static void persistRaid(RaidData raidData) {
+        MissionSavedData.store(net.minecraftforge.server.ServerLifecycleHooks.getCurrentServer(), raidData.getDimension(),
+            MissionType.RAID, raidData.getPlayerUuid(), raidData.save());
+    }
+    
+    /**
+     * Scheduled update for one raid (see {@link MissionScheduler})
+     * @return true once the raid is finished or has been replaced/stopped
+     */
+    private static boolean updateRaid(net.minecraft.server.MinecraftServer server, UUID playerUuid, RaidData raidData) {
+        if (activeRaids.get(playerUuid) != raidData) {
+            return true; // Stopped or superseded by a newer raid
+        }
         
-        // Find active recruits
-        for (UUID recruitId : raidData.getRecruitIds()) {
-            AbstractRecruitEntity recruit = findRecruitById(level, recruitId);
-            if (recruit != null && recruit.isAlive()) {
-                activeRecruits.add(recruit);
-            }
+        // Find the player
+        ServerPlayer player = server.getPlayerList().getPlayer(playerUuid);
+        if (player == null) {
+            raidData.getTickets().park(); // Do not keep the warband's chunks loaded for an absent commander
+            return false; // Commander offline: the raid is saved and carries on once they are back
+        }
+        raidData.getTickets().unpark(server.getLevel(raidData.getDimension()));
+        
+        if (updateRaidProgress(player, raidData)) {
+            endRaid(server, playerUuid, raidData);
+            return true;
         }
+        return false;
+    }
+    
+    /**
+     * @return true when the raid has ended
+     */
+    private static boolean updateRaidProgress(ServerPlayer player, RaidData raidData) {
+        ServerLevel level = (ServerLevel) player.level();
+        List<AbstractRecruitEntity> activeRecruits = RecruitRegistry.resolveAlive(level, raidData.getRecruitIds());
         
         if (activeRecruits.isEmpty()) {
+            long now = MissionScheduler.getCurrentTick();
+            if (raidData.isAwaitingResume(player.server.getLevel(raidData.getDimension()), now)) {
+                return false; // Restored raid: recruits' chunks may not be loaded yet
+            }
+            if (raidData.getTickets().awaitSquad(now)) {
+                return false; // Long-range raid: the ticketed chunks are loading back in
+            }
             player.sendSystemMessage(net.minecraft.network.chat.Component.literal("Warband lost — raid aborted."));
-            iterator.remove();
-            return;
+            return true;
+        }
+        if (raidData.isResuming()) {
+            raidData.finishResume();
+            raidData.getTickets().releaseAll(); // Restore ticket done; a long-range raid re-tickets its squad as it moves
         }
         
         switch (raidData.getPhase()) {
@@ -217,84 +280,147 @@ public class RaidManager {
                 handleLooting(player, raidData, activeRecruits, level);
                 break;
             case RETURNING:
-                handleReturning(player, raidData, activeRecruits, level, iterator);
-                break;
+                return handleReturning(player, raidData, activeRecruits, level);
         }
+        return false;
     }
     
     private static void handleMovingToTarget(ServerPlayer player, RaidData raidData, List<AbstractRecruitEntity> recruits, ServerLevel level) {
         BlockPos targetPos = raidData.getTargetPos();
-        boolean allArrived = true;
+        SquadState squad = raidData.getSquad();
+        squad.update(recruits, targetPos.getX(), targetPos.getY(), targetPos.getZ(), TARGET_ARRIVAL_RADIUS);
+        if (raidData.trackSquadChunk(squad)) {
+            persistRaid(raidData); // Keep the saved chunk current for a restart
+        }
         
         // Check for lagging recruits and teleport them if needed
-        teleportLaggingRecruits(recruits, targetPos, level, "raid");
+        SquadMovement.teleportLaggingRecruits(squad, recruits, targetPos, level, "raid",
+            recruit -> issueRaidOrder(raidData, recruit, targetPos, 0)); // Use default raid type for movement
         
-        for (AbstractRecruitEntity recruit : recruits) {
-            double distance = recruit.distanceToSqr(targetPos.getX(), targetPos.getY(), targetPos.getZ());
-            if (distance > TARGET_ARRIVAL_RADIUS * TARGET_ARRIVAL_RADIUS) {
-                allArrived = false;
-                // Continue moving to target
-                setRecruitRaidTarget(recruit, targetPos, raidData.getRaidType());
+        // Keep a far-away warband and the way ahead loaded; the tickets stay on the battlefield until it returns
+        if (isLongRange(raidData, squad)) {
+            raidData.getTickets().update(level, squad, targetPos.getX() + 0.5, targetPos.getZ() + 0.5);
+        }
+        
+        boolean allArrived = squad.allArrived();
+        long now = MissionScheduler.getCurrentTick();
+        RouteFollower route = raidData.getRoute();
+        FlowSteering steering = raidData.getSteering();
+        StallDetector stalls = raidData.getStalls();
+        route.prepare(level, squad, targetPos);
+        steering.prepare(level, targetPos, recruits.size());
+        for (int i = 0; i < recruits.size(); i++) {
+            AbstractRecruitEntity recruit = recruits.get(i);
+            if (squad.hasArrived(i) || stalls.isDetouring(recruit)) continue;
+            
+            // Far away: follow the planned route; closer in, large warbands follow the target's shared flow field
+            if (route.steer(recruit, r -> issueRaidOrder(raidData, r, targetPos, raidData.getRaidType()))) continue;
+            if (steering.steer(recruit, r -> issueRaidOrder(raidData, r, targetPos, raidData.getRaidType()))) continue;
+            
+            // Continue moving to target: only re-send the order if it was dropped or the recruit stalled
+            if (raidData.getOrders().needsOrder(recruit, targetPos, now)) {
+                issueRaidOrder(raidData, recruit, targetPos, raidData.getRaidType());
             }
         }
         
+        // Free recruits, or the whole warband, that stopped getting closer to the target
+        stalls.update(recruits, squad, targetPos, now, r -> resteer(raidData, r, targetPos));
+        
         if (allArrived) {
             raidData.setPhase(RaidData.RaidPhase.ENGAGING_TARGETS);
+            persistRaid(raidData);
             player.sendSystemMessage(net.minecraft.network.chat.Component.literal("Warband has reached the battlefield — commence the assault!"));
         }
     }
     
+    /**
+     * Send a stalled recruit its current steering order again: its route or flow-field
+     * waypoint, and only without either the raid order to the target itself
+     */
+    private static void resteer(RaidData raidData, AbstractRecruitEntity recruit, BlockPos targetPos) {
+        Consumer<AbstractRecruitEntity> raidOrder = r -> issueRaidOrder(raidData, r, targetPos, raidData.getRaidType());
+        raidData.getRoute().forget(recruit.getUUID());
+        if (raidData.getRoute().steer(recruit, raidOrder)) return;
+        raidData.getSteering().forget(recruit.getUUID());
+        if (raidData.getSteering().steer(recruit, raidOrder)) return;
+        raidOrder.accept(recruit);
+    }
+    
+    private static boolean isLongRange(RaidData raidData, SquadState squad) {
+        if (!RaidConfig.ENABLE_LONG_RANGE_MARCH.get()) return false;
+        if (raidData.getTickets().isHolding()) return true;
+        int minDistance = RaidConfig.LONG_RANGE_MIN_DISTANCE.get();
+        BlockPos targetPos = raidData.getTargetPos();
+        return squad.centroidDistanceSqXZ(targetPos.getX(), targetPos.getZ()) >= (double) minDistance * minDistance;
+    }
+    
     private static void handleEngagingTargets(ServerPlayer player, RaidData raidData, List<AbstractRecruitEntity> recruits, ServerLevel level) {
         BlockPos targetPos = raidData.getTargetPos();
         AABB combatArea = new AABB(targetPos).inflate(COMBAT_ENGAGEMENT_RADIUS);
         
         // Find hostile entities in the area
-        List<LivingEntity> hostiles = level.getEntitiesOfClass(LivingEntity.class, combatArea, entity -> {
-            return entity instanceof Monster || 
-                   (raidData.getRaidType() == 0 && entity instanceof Villager); // Raids can target villagers
+        List<LivingEntity> hostiles = raidData.getThreats().scan(level, combatArea, entity -> {
+            return entity.isAlive() && (entity instanceof Monster ||
+                   (raidData.getRaidType() == 0 && entity instanceof Villager)); // Raids can target villagers
         });
         
         if (hostiles.isEmpty()) {
+            raidData.getTargets().clear();
             raidData.setPhase(RaidData.RaidPhase.LOOTING);
+            persistRaid(raidData);
             player.sendSystemMessage(net.minecraft.network.chat.Component.literal("Enemy routed — commence plunder."));
+            scheduleLootingTimeout(player.getUUID(), raidData);
             return;
         }
         
-        // Assign targets to recruits
-        for (int i = 0; i < recruits.size() && i < hostiles.size(); i++) {
-            AbstractRecruitEntity recruit = recruits.get(i);
-            LivingEntity target = hostiles.get(i);
-            recruit.setTarget(target);
-        }
+        // Spread recruits over the enemies, keeping existing assignments where possible
+        raidData.getTargets().allocate(recruits, hostiles, RaidConfig.MAX_ATTACKERS_PER_TARGET.get());
     }
     
     private static void handleLooting(ServerPlayer player, RaidData raidData, List<AbstractRecruitEntity> recruits, ServerLevel level) {
-        // Simple looting phase - just wait a bit then return
-        raidData.incrementLootingTime();
+        // Simple looting phase - the phase timer moves the raid on; re-arm it if it was lost
+        if (raidData.getTimers().size() == 0) {
+            scheduleLootingTimeout(player.getUUID(), raidData);
+        }
+    }
+    
+    /**
+     * Arm the looting phase timeout: after a short plunder the warband returns to the commander
+     */
+    private static void scheduleLootingTimeout(UUID playerUuid, RaidData raidData) {
+        raidData.getTimers().schedule(LOOTING_DURATION_TICKS, () -> finishLooting(playerUuid, raidData));
+    }
+    
+    private static void finishLooting(UUID playerUuid, RaidData raidData) {
+        if (activeRaids.get(playerUuid) != raidData || raidData.getPhase() != RaidData.RaidPhase.LOOTING) return;
         
-        if (raidData.getLootingTime() > 100) { // 5 seconds of looting
-            raidData.setPhase(RaidData.RaidPhase.RETURNING);
-            player.sendSystemMessage(net.minecraft.network.chat.Component.literal("Spoils secured — returning to commander."));
-            
-            // Set recruits to return to player
-            for (AbstractRecruitEntity recruit : recruits) {
-                recruit.setFollowState(1); // Follow command
-                recruit.setTarget(null);
-            }
+        ServerPlayer player = net.minecraftforge.server.ServerLifecycleHooks.getCurrentServer().getPlayerList().getPlayer(playerUuid);
+        if (player == null) return; // Commander offline: handleLooting re-arms the timeout once they are back
+        
+        raidData.setPhase(RaidData.RaidPhase.RETURNING);
+        raidData.getTickets().releaseAll(); // Heading back to the commander, whose chunks are loaded anyway
+        persistRaid(raidData);
+        player.sendSystemMessage(net.minecraft.network.chat.Component.literal("Spoils secured — returning to commander."));
+        
+        // Set recruits to return to player
+        for (AbstractRecruitEntity recruit : RecruitRegistry.resolveAlive(player.serverLevel(), raidData.getRecruitIds())) {
+            recruit.setFollowState(1); // Follow command
+            recruit.setTarget(null);
         }
     }
     
-    private static void handleReturning(ServerPlayer player, RaidData raidData, List<AbstractRecruitEntity> recruits, ServerLevel level, Iterator<Map.Entry<UUID, RaidData>> iterator) {
+    private static boolean handleReturning(ServerPlayer player, RaidData raidData, List<AbstractRecruitEntity> recruits, ServerLevel level) {
         boolean allReturned = true;
-        BlockPos playerPos = player.blockPosition();
+        BlockPos safePlayerPos = null;
         
         for (AbstractRecruitEntity recruit : recruits) {
             double distance = recruit.distanceToSqr(player.getX(), player.getY(), player.getZ());
             if (distance > 100) { // 10 block radius
                 allReturned = false;
-                // Command recruit to return to player using safe positioning
-                BlockPos safePlayerPos = com.talhanation.recruits.util.FormationUtils.getPositionOrSurface(
-                    level, playerPos);
+                // Command recruit to return to player using safe positioning (probed once per update)
+                if (safePlayerPos == null) {
+                    safePlayerPos = SurfaceCache.getPositionOrSurface(level, player.blockPosition());
+                }
                 recruit.clearHoldPos();
                 recruit.setMovePos(safePlayerPos);
                 recruit.setShouldMovePos(true);
@@ -308,12 +434,13 @@ public class RaidManager {
                 resetRecruitBehavior(recruit);
             }
             player.sendSystemMessage(net.minecraft.network.chat.Component.literal("Warband returns victorious."));
-            iterator.remove();
+            return true;
         }
+        return false;
     }
 
     /**
-     * When any recruit in an active raid is hurt, command the whole raid group to attack the aggressor
+     * When any recruit in an active raid is hurt, command the whole raid group to attack the aggressors
      * and notify the commander with a short cooldown to prevent spam.
      */
     @SubscribeEvent
@@ -322,94 +449,30 @@ public class RaidManager {
         net.minecraft.world.entity.Entity src = event.getSource().getEntity();
         if (!(src instanceof net.minecraft.world.entity.LivingEntity attacker)) return;
 
-        UUID victimId = victim.getUUID();
-        for (java.util.Map.Entry<java.util.UUID, RaidData> entry : activeRaids.entrySet()) {
-            RaidData data = entry.getValue();
-            if (!data.getRecruitIds().contains(victimId)) continue;
+        RaidData data = raidsByRecruit.get(victim.getUUID());
+        if (data == null) return;
+        UUID commanderId = data.getPlayerUuid();
 
-            // Order retaliation
-            if (victim.level() instanceof net.minecraft.server.level.ServerLevel level) {
-                for (UUID id : data.getRecruitIds()) {
-                    AbstractRecruitEntity recruit = findRecruitById(level, id);
-                    if (recruit != null && recruit.isAlive()) {
-                        recruit.setTarget(attacker);
-                    }
-                }
-            }
+        // Order retaliation: attackers are batched so a volley triggers one targeting decision
+        data.getRetaliation().report(attacker);
 
-            // Cool-down gated commander message
-            long now = victim.level().getGameTime();
-            long last = LAST_ATTACK_MESSAGE.getOrDefault(entry.getKey(), 0L);
-            if (now - last >= ATTACK_MESSAGE_COOLDOWN_TICKS) {
-                LAST_ATTACK_MESSAGE.put(entry.getKey(), now);
-                net.minecraft.server.level.ServerPlayer commander = victim.level().getServer().getPlayerList().getPlayer(entry.getKey());
-                if (commander != null) {
-                    commander.sendSystemMessage(net.minecraft.network.chat.Component.literal("Warband under attack — weapons free!"));
-                }
-            }
-            break; // a recruit can belong to only one raid entry
+        // Cool-down gated commander message, only for a commander who is online
+        ServerPlayer commander = victim.level().getServer().getPlayerList().getPlayer(commanderId);
+        if (NotificationLimiter.tryAcquire(commander, NotificationLimiter.Type.UNDER_ATTACK)) {
+            commander.sendSystemMessage(net.minecraft.network.chat.Component.literal("Warband under attack — weapons free!"));
         }
     }
 
     /**
-     * Teleports recruits who have fallen too far behind the main group during movement phase.
-     * Only applies during movement, not combat/looting phases.
+     * Spread the warband over the attackers collected during one retaliation window
      */
-    private static void teleportLaggingRecruits(List<AbstractRecruitEntity> recruits, BlockPos targetPos, ServerLevel level, String operationType) {
-        if (!RaidConfig.ENABLE_TELEPORTATION.get() || recruits.size() <= 1) return; // Need at least 2 recruits to determine who's lagging
-        
-        // Calculate average position of all recruits
-        double avgX = 0, avgY = 0, avgZ = 0;
-        int validRecruits = 0;
-        
-        for (AbstractRecruitEntity recruit : recruits) {
-            if (recruit.isAlive()) {
-                avgX += recruit.getX();
-                avgY += recruit.getY();
-                avgZ += recruit.getZ();
-                validRecruits++;
-            }
-        }
-        
-        if (validRecruits == 0) return;
+    static void retaliate(RaidData raidData, List<LivingEntity> attackers) {
+        if (activeRaids.get(raidData.getPlayerUuid()) != raidData) return;
         
-        avgX /= validRecruits;
-        avgY /= validRecruits;
-        avgZ /= validRecruits;
+        ServerLevel level = net.minecraftforge.server.ServerLifecycleHooks.getCurrentServer().getLevel(raidData.getDimension());
+        if (level == null) return;
         
-        int lagDistance = RaidConfig.TELEPORTATION_DISTANCE_THRESHOLD.get();
-        int progressDistance = RaidConfig.TELEPORTATION_PROGRESS_THRESHOLD.get();
-        final double LAG_THRESHOLD = lagDistance * lagDistance; // Convert to squared for distance comparison
-        final double MIN_PROGRESS_THRESHOLD = progressDistance * progressDistance; // Convert to squared
-        
-        // Check if the group has moved significantly from spawn (avoid teleporting at start)
-        double groupProgressToTarget = (avgX - targetPos.getX()) * (avgX - targetPos.getX()) + 
-                                     (avgZ - targetPos.getZ()) * (avgZ - targetPos.getZ());
-        
-        for (AbstractRecruitEntity recruit : recruits) {
-            if (!recruit.isAlive()) continue;
-            
-            double distanceFromGroup = (recruit.getX() - avgX) * (recruit.getX() - avgX) + 
-                                     (recruit.getY() - avgY) * (recruit.getY() - avgY) + 
-                                     (recruit.getZ() - avgZ) * (recruit.getZ() - avgZ);
-            
-            // Only teleport if recruit is far from group AND group has made progress
-            if (distanceFromGroup > LAG_THRESHOLD && groupProgressToTarget > MIN_PROGRESS_THRESHOLD) {
-                // Find a safe position near the group center
-                BlockPos teleportPos = com.talhanation.recruits.util.FormationUtils.getPositionOrSurface(
-                    level, new BlockPos((int)avgX, (int)avgY, (int)avgZ));
-                
-                // Teleport the lagging recruit
-                recruit.teleportTo(teleportPos.getX() + 0.5, teleportPos.getY(), teleportPos.getZ() + 0.5);
-                recruit.clearMovePos();
-                recruit.setShouldMovePos(false);
-                
-                // Reset their target to continue the mission
-                setRecruitRaidTarget(recruit, targetPos, 0); // Use default raid type for movement
-                
-                ModMain.LOGGER.info("Teleported lagging {} recruit {} to group position ({}, {}, {})", 
-                    operationType, recruit.getUUID(), teleportPos.getX(), teleportPos.getY(), teleportPos.getZ());
-            }
-        }
+        raidData.getTargets().allocate(RecruitRegistry.resolveAlive(level, raidData.getRecruitIds()), attackers,
+            RaidConfig.MAX_ATTACKERS_PER_TARGET.get());
     }
 }
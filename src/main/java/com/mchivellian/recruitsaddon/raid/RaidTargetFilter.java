@@ -0,0 +1,76 @@
+package com.mchivellian.recruitsaddon.raid;
+
+import com.mchivellian.recruitsaddon.ModMain;
+import com.mchivellian.recruitsaddon.config.RaidConfig;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.entity.EntityType;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.event.config.ModConfigEvent;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Compiled raid target blacklist.
+ * The entity blacklist and the creeper / endermen toggles are evaluated once per registered
+ * entity type into a bitset indexed by registry id, so a target check is a single bit lookup.
+ * The table is rebuilt lazily after the config loads or reloads.
+ */
+@Mod.EventBusSubscriber(modid = ModMain.MODID, bus = Mod.EventBusSubscriber.Bus.MOD)
+public final class RaidTargetFilter {
+    
+    private static volatile BitSet excluded;
+    
+    private RaidTargetFilter() {}
+    
+    /**
+     * Whether entities of this type must never be raid targets
+     */
+    public static boolean isExcluded(EntityType<?> type) {
+        BitSet table = excluded;
+        if (table == null) {
+            table = rebuild();
+        }
+        return table.get(BuiltInRegistries.ENTITY_TYPE.getId(type));
+    }
+    
+    private static synchronized BitSet rebuild() {
+        BitSet table = excluded;
+        if (table != null) {
+            return table;
+        }
+        
+        List<String> keys = new ArrayList<>();
+        for (EntityType<?> type : BuiltInRegistries.ENTITY_TYPE) {
+            int id = BuiltInRegistries.ENTITY_TYPE.getId(type);
+            while (keys.size() <= id) {
+                keys.add(null);
+            }
+            ResourceLocation key = BuiltInRegistries.ENTITY_TYPE.getKey(type);
+            keys.set(id, key.toString());
+        }
+        
+        table = RaidTargetRules.compile(keys, RaidConfig.RAID_ENTITY_BLACKLIST.get(),
+            RaidConfig.shouldAvoidCreepers(), RaidConfig.shouldAvoidEndermen());
+        excluded = table;
+        ModMain.LOGGER.debug("Compiled raid target filter: {} of {} entity types excluded", table.cardinality(), keys.size());
+        return table;
+    }
+    
+    @SubscribeEvent
+    public static void onConfigLoading(ModConfigEvent.Loading event) {
+        if (event.getConfig().getSpec() == RaidConfig.SPEC) {
+            excluded = null;
+        }
+    }
+    
+    @SubscribeEvent
+    public static void onConfigReloading(ModConfigEvent.Reloading event) {
+        if (event.getConfig().getSpec() == RaidConfig.SPEC) {
+            excluded = null;
+        }
+    }
+}
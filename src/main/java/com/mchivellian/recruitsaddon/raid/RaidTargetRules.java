@@ -0,0 +1,47 @@
+package com.mchivellian.recruitsaddon.raid;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Entity-type rules deciding whether a raid may attack an entity, kept free of
+ * game state so they can be benchmarked in isolation.
+ */
+public final class RaidTargetRules {
+    
+    private RaidTargetRules() {}
+    
+    /**
+     * Whether an entity type is excluded from raid targeting by the blacklist or the avoid toggles
+     * @param entityType registry key of the type, e.g. {@code minecraft:creeper}
+     */
+    public static boolean isExcludedType(String entityType, Collection<? extends String> blacklist,
+                                         boolean avoidCreepers, boolean avoidEndermen) {
+        if (blacklist.contains(entityType)) {
+            return true;
+        }
+        if (avoidCreepers && entityType.contains("creeper")) {
+            return true;
+        }
+        return avoidEndermen && entityType.contains("enderman");
+    }
+    
+    /**
+     * Evaluate the rules once per entity type. Bit {@code i} is set when {@code typeKeys.get(i)} is excluded.
+     */
+    public static BitSet compile(List<String> typeKeys, Collection<? extends String> blacklist,
+                                 boolean avoidCreepers, boolean avoidEndermen) {
+        Set<String> blacklistSet = new HashSet<>(blacklist);
+        BitSet excluded = new BitSet(typeKeys.size());
+        for (int i = 0; i < typeKeys.size(); i++) {
+            String key = typeKeys.get(i);
+            if (key != null && isExcludedType(key, blacklistSet, avoidCreepers, avoidEndermen)) {
+                excluded.set(i);
+            }
+        }
+        return excluded;
+    }
+}
@@ -0,0 +1,76 @@
+package com.mchivellian.recruitsaddon.mission;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Stall window of {@link StallDetector}, driven at the update intervals missions actually use
+ */
+public class ProgressWindowTest {
+
+    private static final int WINDOW_TICKS = 100;
+    private static final double MIN_PROGRESS = 2.0;
+    private static final double MIN_DISPLACEMENT_SQ = 9.0;
+
+    @Test
+    public void stallFiresAtAdvancedRaidInterval() {
+        ProgressWindow window = new ProgressWindow(WINDOW_TICKS);
+        boolean stalled = false;
+        long tick = 0;
+        for (; tick <= 200 && !stalled; tick += 10) {
+            window.record(tick, 0.0, 0.0, 50.0); // Pinned against a wall
+            stalled = window.isStalled(tick, MIN_PROGRESS, MIN_DISPLACEMENT_SQ);
+        }
+        assertTrue(stalled, "stall never detected at a 10 tick interval");
+        assertEquals(WINDOW_TICKS, tick - 10, "stall should fire as soon as one window has passed");
+    }
+
+    @Test
+    public void stallFiresAtSlowIntervals() {
+        for (int interval : new int[] {1, 20, 40, 150}) {
+            ProgressWindow window = new ProgressWindow(WINDOW_TICKS);
+            boolean stalled = false;
+            for (long tick = 0; tick <= 400 && !stalled; tick += interval) {
+                window.record(tick, 0.0, 0.0, 50.0);
+                stalled = window.isStalled(tick, MIN_PROGRESS, MIN_DISPLACEMENT_SQ);
+            }
+            assertTrue(stalled, "stall never detected at a " + interval + " tick interval");
+        }
+    }
+
+    @Test
+    public void progressIsNotAStall() {
+        ProgressWindow window = new ProgressWindow(WINDOW_TICKS);
+        for (long tick = 0; tick <= 400; tick += 10) {
+            double walked = tick * 0.1; // 2 blocks per second straight at the goal
+            window.record(tick, walked, 0.0, 100.0 - walked);
+            assertFalse(window.isStalled(tick, MIN_PROGRESS, MIN_DISPLACEMENT_SQ), "stall reported at tick " + tick);
+        }
+    }
+
+    @Test
+    public void detourIsNotAStall() {
+        ProgressWindow window = new ProgressWindow(WINDOW_TICKS);
+        for (long tick = 0; tick <= 400; tick += 10) {
+            window.record(tick, 0.0, tick * 0.1, 50.0); // Walking around an obstacle, no closer to the goal
+            assertFalse(window.isStalled(tick, MIN_PROGRESS, MIN_DISPLACEMENT_SQ), "stall reported at tick " + tick);
+        }
+    }
+
+    @Test
+    public void clearRestartsTheWindow() {
+        ProgressWindow window = new ProgressWindow(WINDOW_TICKS);
+        for (long tick = 0; tick <= 100; tick += 10) {
+            window.record(tick, 0.0, 0.0, 50.0);
+        }
+        assertTrue(window.isStalled(100, MIN_PROGRESS, MIN_DISPLACEMENT_SQ));
+
+        window.clear();
+        window.record(110, 0.0, 0.0, 50.0);
+        assertFalse(window.hasFullWindow(110));
+        assertFalse(window.isStalled(110, MIN_PROGRESS, MIN_DISPLACEMENT_SQ));
+    }
+}